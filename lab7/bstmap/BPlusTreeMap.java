@@ -0,0 +1,455 @@
+package bstmap;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Ordered map implemented with an in-memory B+-tree. Each node keeps up to
+ * fanout keys side by side in one array, so a lookup touches about
+ * log_fanout(N) nodes instead of the lg N scattered BSTNodes of BSTMap,
+ * and the binary search inside a node runs over contiguous memory. Values
+ * live only in the leaves, which are linked left to right, so iterating
+ * and range scans walk whole arrays of keys without going back up the tree.
+ *
+ * remove() takes the entry out of its leaf without merging or borrowing
+ * from neighbours, but a leaf left empty is unlinked from the leaf chain
+ * and from its parent, as is an inner node left without children, and a
+ * root with a single child is replaced by that child. So after deletes
+ * every leaf still holds at least one key and a scan never walks over
+ * empty leaves, and the tree gets shorter again as it empties.
+ * @param <K> Key of map
+ * @param <V> Value paired with key
+ */
+public class BPlusTreeMap<K extends Comparable<K>, V> implements Map61B<K, V> {
+    public static final int DEFAULT_FANOUT = 64;
+
+    /** Most children of an inner node, and most entries of a leaf */
+    private final int fanout;
+    private int size;
+    private Node root;
+    private Leaf first;
+
+    /** Separator pushed up by the last split in put(Node, K, V) */
+    private K splitKey;
+
+    /** Keys of a node, sorted; count of them are in use */
+    private abstract class Node {
+        final Object[] keys;
+        int count;
+
+        Node(int capacity) {
+            keys = new Object[capacity];
+        }
+    }
+
+    /** Leaf holding values[i] for keys[i], linked to the leaves on either side */
+    private class Leaf extends Node {
+        final Object[] values;
+        Leaf prev;
+        Leaf next;
+
+        Leaf() {
+            // one spare slot so that a full leaf can take a key before splitting
+            super(fanout + 1);
+            values = new Object[fanout + 1];
+        }
+    }
+
+    /**
+     * Inner node with count keys and count + 1 children. Every key in
+     * children[i] is less than keys[i], and every key in children[i + 1]
+     * is greater than or equal to it.
+     */
+    private class Inner extends Node {
+        final Node[] children;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Inner() {
+            super(fanout);
+            children = new BPlusTreeMap.Node[fanout + 1];
+        }
+    }
+
+    public BPlusTreeMap() {
+        this(DEFAULT_FANOUT);
+    }
+
+    /**
+     * @param fanout the most children of an inner node and the most entries
+     *               of a leaf
+     * @throws IllegalArgumentException if fanout is less than 3
+     */
+    public BPlusTreeMap(int fanout) {
+        if (fanout < 3) {
+            throw new IllegalArgumentException("fanout must be at least 3: " + fanout);
+        }
+        this.fanout = fanout;
+        clear();
+    }
+
+    /**
+     * Clear off all entries in this map
+     */
+    @Override
+    public void clear() {
+        size = 0;
+        first = new Leaf();
+        root = first;
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        if (key == null) {
+            return false;
+        }
+        return indexOf(findLeaf(key), key) >= 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(K key) {
+        if (key == null) {
+            return null;
+        }
+        Leaf leaf = findLeaf(key);
+        int i = indexOf(leaf, key);
+        return i < 0 ? null : (V) leaf.values[i];
+    }
+
+    /**
+     * Get the number of entries in map
+     * @return the number of entries in map
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /** Returns the number of levels of the tree, 1 while the root is a leaf */
+    public int height() {
+        int height = 1;
+        for (Node x = root; x instanceof BPlusTreeMap.Inner; x = ((Inner) x).children[0]) {
+            height++;
+        }
+        return height;
+    }
+
+    /**
+     * Insert a key-value pair into map, replacing the value if key is present
+     * @param key key in key-value pair
+     * @param value value in key-value pair
+     */
+    @Override
+    public void put(K key, V value) {
+        if (key == null) {
+            return;
+        }
+        Node sibling = put(root, key, value);
+        if (sibling != null) {
+            Inner newRoot = new Inner();
+            newRoot.keys[0] = splitKey;
+            newRoot.children[0] = root;
+            newRoot.children[1] = sibling;
+            newRoot.count = 1;
+            root = newRoot;
+        }
+        splitKey = null;
+    }
+
+    /**
+     * Puts key into the subtree rooted at x. If x overflows it is split in
+     * two, and the new right half is returned with its separator in splitKey.
+     */
+    private Node put(Node x, K key, V value) {
+        if (x instanceof BPlusTreeMap.Leaf) {
+            Leaf leaf = (Leaf) x;
+            int i = indexOf(leaf, key);
+            if (i >= 0) {
+                leaf.values[i] = value;
+                return null;
+            }
+            i = -(i + 1);
+            System.arraycopy(leaf.keys, i, leaf.keys, i + 1, leaf.count - i);
+            System.arraycopy(leaf.values, i, leaf.values, i + 1, leaf.count - i);
+            leaf.keys[i] = key;
+            leaf.values[i] = value;
+            leaf.count++;
+            size++;
+            return leaf.count > fanout ? splitLeaf(leaf) : null;
+        }
+
+        Inner inner = (Inner) x;
+        int i = childIndex(inner, key);
+        Node sibling = put(inner.children[i], key, value);
+        if (sibling == null) {
+            return null;
+        }
+        System.arraycopy(inner.keys, i, inner.keys, i + 1, inner.count - i);
+        System.arraycopy(inner.children, i + 1, inner.children, i + 2, inner.count - i);
+        inner.keys[i] = splitKey;
+        inner.children[i + 1] = sibling;
+        inner.count++;
+        return inner.count == fanout ? splitInner(inner) : null;
+    }
+
+    /** Moves the upper half of leaf into a new leaf linked right after it */
+    private Leaf splitLeaf(Leaf leaf) {
+        Leaf right = new Leaf();
+        int mid = leaf.count / 2;
+        right.count = leaf.count - mid;
+        System.arraycopy(leaf.keys, mid, right.keys, 0, right.count);
+        System.arraycopy(leaf.values, mid, right.values, 0, right.count);
+        clearTail(leaf.keys, mid, leaf.count);
+        clearTail(leaf.values, mid, leaf.count);
+        leaf.count = mid;
+        right.prev = leaf;
+        right.next = leaf.next;
+        if (leaf.next != null) {
+            leaf.next.prev = right;
+        }
+        leaf.next = right;
+        splitKey = key(right, 0);
+        return right;
+    }
+
+    /**
+     * Moves the keys and children right of the middle key into a new inner
+     * node; the middle key itself moves up as the separator
+     */
+    private Inner splitInner(Inner inner) {
+        Inner right = new Inner();
+        int mid = inner.count / 2;
+        right.count = inner.count - mid - 1;
+        System.arraycopy(inner.keys, mid + 1, right.keys, 0, right.count);
+        System.arraycopy(inner.children, mid + 1, right.children, 0, right.count + 1);
+        splitKey = key(inner, mid);
+        clearTail(inner.keys, mid, inner.count);
+        clearTail(inner.children, mid + 1, inner.count + 1);
+        inner.count = mid;
+        return right;
+    }
+
+    @Override
+    public V remove(K key) {
+        if (key == null) {
+            return null;
+        }
+        Leaf leaf = findLeaf(key);
+        int i = indexOf(leaf, key);
+        if (i < 0) {
+            return null;
+        }
+        @SuppressWarnings("unchecked")
+        V value = (V) leaf.values[i];
+        System.arraycopy(leaf.keys, i + 1, leaf.keys, i, leaf.count - i - 1);
+        System.arraycopy(leaf.values, i + 1, leaf.values, i, leaf.count - i - 1);
+        leaf.count--;
+        leaf.keys[leaf.count] = null;
+        leaf.values[leaf.count] = null;
+        size--;
+        if (size == 0) {
+            clear();
+        } else if (leaf.count == 0) {
+            unlinkLeaf(leaf);
+            removeEmptyChild((Inner) root, key);
+            while (root instanceof BPlusTreeMap.Inner && root.count == 0) {
+                root = ((Inner) root).children[0];
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Takes leaf out of the chain of leaves. Its own links are kept, so an
+     * iterator standing on it still finds the leaves after it.
+     */
+    private void unlinkLeaf(Leaf leaf) {
+        if (leaf.prev == null) {
+            first = leaf.next;
+        } else {
+            leaf.prev.next = leaf.next;
+        }
+        if (leaf.next != null) {
+            leaf.next.prev = leaf.prev;
+        }
+    }
+
+    /**
+     * Drops the empty node on the path to key from the subtree of inner,
+     * and returns true if that leaves inner itself without children
+     */
+    private boolean removeEmptyChild(Inner inner, K key) {
+        int i = childIndex(inner, key);
+        Node child = inner.children[i];
+        if (child instanceof BPlusTreeMap.Inner && !removeEmptyChild((Inner) child, key)) {
+            return false;
+        }
+        if (inner.count == 0) {
+            inner.children[0] = null;
+            return true;
+        }
+        // drop a separator next to child; a neighbour takes over its empty range
+        int k = i == 0 ? 0 : i - 1;
+        System.arraycopy(inner.keys, k + 1, inner.keys, k, inner.count - k - 1);
+        System.arraycopy(inner.children, i + 1, inner.children, i, inner.count - i);
+        inner.count--;
+        inner.keys[inner.count] = null;
+        inner.children[inner.count + 1] = null;
+        return false;
+    }
+
+    @Override
+    public V remove(K key, V value) {
+        V current = get(key);
+        if (current == null || !current.equals(value)) {
+            return null;
+        }
+        return remove(key);
+    }
+
+    /* ------------------------- Tree navigation ------------------------- */
+
+    @SuppressWarnings("unchecked")
+    private K key(Node x, int i) {
+        return (K) x.keys[i];
+    }
+
+    /** Returns the leaf whose range of keys holds key */
+    private Leaf findLeaf(K key) {
+        Node x = root;
+        while (x instanceof BPlusTreeMap.Inner) {
+            Inner inner = (Inner) x;
+            x = inner.children[childIndex(inner, key)];
+        }
+        return (Leaf) x;
+    }
+
+    /** Returns the index of the child of inner to descend into for key */
+    private int childIndex(Inner inner, K key) {
+        // first separator greater than key
+        int lo = 0;
+        int hi = inner.count;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (key.compareTo(key(inner, mid)) < 0) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Returns the index of key in leaf, or -(insertion point) - 1 if it is
+     * not there, like Arrays.binarySearch
+     */
+    private int indexOf(Leaf leaf, K key) {
+        int lo = 0;
+        int hi = leaf.count - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = key.compareTo(key(leaf, mid));
+            if (cmp == 0) {
+                return mid;
+            }
+            if (cmp < 0) {
+                hi = mid - 1;
+            } else {
+                lo = mid + 1;
+            }
+        }
+        return -(lo + 1);
+    }
+
+    private static void clearTail(Object[] a, int from, int to) {
+        for (int i = from; i < to; i++) {
+            a[i] = null;
+        }
+    }
+
+    /* ------------------------ Iteration and ranges ------------------------ */
+
+    /**
+     * Returns the keys between lo and hi, both inclusive, in ascending
+     * order. Finding lo costs one descent of the tree; after that the scan
+     * only follows the leaf links.
+     */
+    public Iterable<K> keys(K lo, K hi) {
+        return () -> {
+            Leaf leaf = findLeaf(lo);
+            int i = indexOf(leaf, lo);
+            return new KeyIterator(leaf, i < 0 ? -(i + 1) : i, hi);
+        };
+    }
+
+    /** Returns a Set view of the keys, in ascending order */
+    @Override
+    public Set<K> keySet() {
+        return new AbstractSet<K>() {
+            @Override
+            public Iterator<K> iterator() {
+                return BPlusTreeMap.this.iterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public boolean contains(Object o) {
+                return o != null && containsKey((K) o);
+            }
+        };
+    }
+
+    /** Iterates over keys in ascending order along the linked leaves */
+    @Override
+    public Iterator<K> iterator() {
+        return new KeyIterator(first, 0, null);
+    }
+
+    /** Iterator from keys[index] of leaf up to hi, or to the end if hi is null */
+    private class KeyIterator implements Iterator<K> {
+        private final K hi;
+        private Leaf leaf;
+        private int index;
+
+        KeyIterator(Leaf leaf, int index, K hi) {
+            this.leaf = leaf;
+            this.index = index;
+            this.hi = hi;
+            skipExhausted();
+        }
+
+        /** Move on to the next leaf once this one has no keys left */
+        private void skipExhausted() {
+            while (leaf != null && index == leaf.count) {
+                leaf = leaf.next;
+                index = 0;
+            }
+            if (leaf != null && hi != null && hi.compareTo(key(leaf, index)) < 0) {
+                leaf = null;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return leaf != null;
+        }
+
+        @Override
+        public K next() {
+            if (leaf == null) {
+                throw new NoSuchElementException();
+            }
+            K key = key(leaf, index++);
+            skipExhausted();
+            return key;
+        }
+    }
+}
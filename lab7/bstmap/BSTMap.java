@@ -2,19 +2,31 @@ package bstmap;
 
 import org.w3c.dom.Node;
 
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.Deque;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
 /**
  * Ordered map implemented with binary search tree, and tree structure is
  * represented using linked node
+ * Every node also records the size of its subtree, which answers rank()
+ * and select() in time proportional to the depth of the tree, and
+ * keys(lo, hi) walks only the part of the tree between lo and hi.
  * @param <K> Key of map
  * @param <V> Value paired with key
  */
 public class BSTMap<K extends Comparable<K>, V> implements Map61B<K, V> {
     private int size;
     private BSTNode root;
+    private long comparisons;  // compareTo() calls, see comparisonCount()
 
     /**
      * Node is used to store Key-Value pair of each tree node,
@@ -25,6 +37,7 @@ public class BSTMap<K extends Comparable<K>, V> implements Map61B<K, V> {
         V value;
         BSTNode left;
         BSTNode right;
+        int subtreeSize = 1;  // number of nodes in the subtree rooted here
 
         BSTNode(K key, V value, BSTNode left, BSTNode right) {
             this.key = key;
@@ -34,6 +47,11 @@ public class BSTMap<K extends Comparable<K>, V> implements Map61B<K, V> {
         }
     }
 
+    /** Returns the number of nodes in the subtree rooted at node */
+    private int subtreeSize(BSTNode node) {
+        return node == null ? 0 : node.subtreeSize;
+    }
+
     public BSTMap() {
         size = 0;
         root = null;
@@ -55,28 +73,10 @@ public class BSTMap<K extends Comparable<K>, V> implements Map61B<K, V> {
      */
     @Override
     public boolean containsKey(K key) {
-        return searchContain(key, this.root);
-    }
-
-    private boolean searchContain(K key, BSTNode root) {
-        // base case: if find the node with same key, or reach out to leaves
-        // if root == null should be checked before compareTo() function
-        if (root == null) {
+        if (key == null) {
             return false;
         }
-        if (key.compareTo(root.key) == 0) {
-            return true;
-        }
-
-        // recursive case: if key < root.key, search in root's sub-left tree,
-        // else search in root's sub-right tree
-        if (key.compareTo(root.key) < 0) {
-            return searchContain(key, root.left);
-        }else if (key.compareTo(root.key) > 0) {
-            return searchContain(key, root.right);
-        }
-
-        return false;
+        return searchNode(key) != null;
     }
 
     /**
@@ -87,39 +87,30 @@ public class BSTMap<K extends Comparable<K>, V> implements Map61B<K, V> {
      */
     @Override
     public V get(K key) {
-        if (size == 0) {
-            return null;
-        }
         if (key == null) {
             return null;
         }
-        return searchNode(key, this.root);
+        BSTNode node = searchNode(key);
+        return node == null ? null : node.value;
     }
 
     /**
-     * Search a key in all nodes of tree
+     * Search a key in all nodes of tree, walking down from the root in a
+     * loop so that a deep tree cannot overflow the stack, and comparing
+     * key with each node on the path only once
      * @param key the key used to search
-     * @param root the root node of the tree
-     * @return the value of corresponding node, or null if can not find
+     * @return the node holding key, or null if can not find
      */
-    private V searchNode(K key, BSTNode root) {
-        // base case: if find the node with same key, or reach out to leaves
-        // if root == null should be checked before compareTo() function
-        if (root == null) {
-            return null;
-        }
-        if (key.compareTo(root.key) == 0) {
-            return root.value;
+    private BSTNode searchNode(K key) {
+        BSTNode node = root;
+        while (node != null) {
+            int cmp = key.compareTo(node.key);
+            comparisons++;
+            if (cmp == 0) {
+                return node;
+            }
+            node = cmp < 0 ? node.left : node.right;
         }
-
-        // recursive case: if key < root.key, search in root's sub-left tree,
-        // else search in root's sub-right tree
-        if (key.compareTo(root.key) < 0) {
-            return searchNode(key, root.left);
-        }else if (key.compareTo(root.key) > 0) {
-            return searchNode(key, root.right);
-        }
-
         return null;
     }
 
@@ -132,48 +123,63 @@ public class BSTMap<K extends Comparable<K>, V> implements Map61B<K, V> {
         return size;
     }
 
+    /**
+     * Insert a key-value pair into map, or replace the value if the key
+     * is already in map
+     * @param key key in key-value pair
+     * @param value value in key-value pair
+     */
     @Override
     public void put(K key, V value) {
-        if (size == 0) {
-            this.root = new BSTNode(key, value, null, null);
-            this.size++;
+        if (key == null) {
             return;
         }
-        if (key == null) {
+        if (root == null) {
+            root = new BSTNode(key, value, null, null);
+            size++;
             return;
         }
-        insertNode(key, value, this.root);
+        BSTNode node = root;
+        Deque<BSTNode> path = new ArrayDeque<>();  // nodes above the new one
+        while (true) {
+            int cmp = key.compareTo(node.key);
+            comparisons++;
+            if (cmp == 0) {
+                node.value = value;
+                return;
+            }
+            path.push(node);
+            BSTNode next = cmp < 0 ? node.left : node.right;
+            if (next == null) {
+                // reach leaves
+                if (cmp < 0) {
+                    node.left = new BSTNode(key, value, null, null);
+                } else {
+                    node.right = new BSTNode(key, value, null, null);
+                }
+                size++;
+                // only now is it known that every subtree on the path grew
+                for (BSTNode above : path) {
+                    above.subtreeSize++;
+                }
+                return;
+            }
+            node = next;
+        }
     }
 
     /**
-     * Insert a key-value pair into map
-     * @param key key in key-value pair
-     * @param value value in key-value pair
-     * @param root the root node of the BST to be inserted with a node
+     * Returns the number of compareTo() calls made by get(), containsKey()
+     * and put() since this map was created or the count was last reset.
+     * Divided by the number of operations this is the average depth reached.
      */
-    private void insertNode (K key, V value, BSTNode root) {
-        // base case
-        if (key.compareTo(root.key) == 0) {
-            return;
-        }
-        // reach leaves
-        if (key.compareTo(root.key) < 0 && root.left == null) {
-            root.left = new BSTNode(key, value, null, null);
-            this.size++;
-            return;
-        }
-        if (key.compareTo(root.key) > 0 && root.right == null) {
-            root.right = new BSTNode(key, value, null, null);
-            this.size++;
-            return;
-        }
+    public long comparisonCount() {
+        return comparisons;
+    }
 
-        // recursive case
-        if (key.compareTo(root.key) < 0) {
-            insertNode(key, value, root.left);
-        }else if (key.compareTo(root.key) > 0) {
-            insertNode(key, value, root.right);
-        }
+    /** Reset the compareTo() counter to zero */
+    public void resetComparisonCount() {
+        comparisons = 0;
     }
 
     public void printInOrder() {
@@ -200,20 +206,449 @@ public class BSTMap<K extends Comparable<K>, V> implements Map61B<K, V> {
         }
     }
 
-    @Override
-    public Set<K> keySet() {
-        throw new UnsupportedOperationException();
-    }
+    /**
+     * Remove the node with the given key. A node with two children takes
+     * the key and value of its successor, the smallest key of its right
+     * subtree, which is unlinked instead (Hibbard deletion).
+     * @param key the key to remove
+     * @return the value paired with key, or null if key is not in map
+     */
     @Override
     public V remove(K key) {
-        throw new UnsupportedOperationException();
+        if (key == null) {
+            return null;
+        }
+        BSTNode node = root;
+        Deque<BSTNode> path = new ArrayDeque<>();  // nodes above the one removed
+        while (node != null) {
+            int cmp = key.compareTo(node.key);
+            comparisons++;
+            if (cmp == 0) {
+                break;
+            }
+            path.push(node);
+            node = cmp < 0 ? node.left : node.right;
+        }
+        if (node == null) {
+            return null;
+        }
+        BSTNode parent = path.peek();
+        for (BSTNode above : path) {
+            above.subtreeSize--;
+        }
+        V value = node.value;
+        if (node.left != null && node.right != null) {
+            node.subtreeSize--;
+            BSTNode successorParent = node;
+            BSTNode successor = node.right;
+            while (successor.left != null) {
+                successor.subtreeSize--;
+                successorParent = successor;
+                successor = successor.left;
+            }
+            if (successorParent == node) {
+                successorParent.right = successor.right;
+            } else {
+                successorParent.left = successor.right;
+            }
+            node.key = successor.key;
+            node.value = successor.value;
+        } else {
+            BSTNode child = node.left != null ? node.left : node.right;
+            if (parent == null) {
+                root = child;
+            } else if (parent.left == node) {
+                parent.left = child;
+            } else {
+                parent.right = child;
+            }
+        }
+        size--;
+        return value;
     }
+
     @Override
     public V remove(K key, V value) {
-        throw new UnsupportedOperationException();
+        V current = get(key);
+        if (current == null || !current.equals(value)) {
+            return null;
+        }
+        return remove(key);
+    }
+
+    /* ------------------------- Bulk construction ------------------------- */
+
+    /**
+     * Returns a perfectly balanced map of keys[i] to values[i], built in
+     * O(N) without a single compareTo() walk down the tree: the middle key
+     * becomes the root and each half is built the same way.
+     * @throws IllegalArgumentException if the arrays differ in length, or
+     *         keys are not in strictly increasing order or contain null
+     */
+    public static <K extends Comparable<K>, V> BSTMap<K, V> fromSorted(K[] keys, V[] values) {
+        if (keys.length != values.length) {
+            throw new IllegalArgumentException(keys.length + " keys but "
+                    + values.length + " values");
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] == null) {
+                throw new IllegalArgumentException("null key at index " + i);
+            }
+            if (i > 0 && keys[i - 1].compareTo(keys[i]) >= 0) {
+                throw new IllegalArgumentException("keys not strictly increasing at index " + i);
+            }
+        }
+        BSTMap<K, V> map = new BSTMap<>();
+        map.root = map.build(keys, values, 0, keys.length - 1);
+        map.size = keys.length;
+        return map;
+    }
+
+    /**
+     * Returns a perfectly balanced map of the entries, which must come in
+     * strictly increasing order of key, in O(N)
+     * @throws IllegalArgumentException if the keys are out of order or null
+     */
+    @SuppressWarnings("unchecked")
+    public static <K extends Comparable<K>, V> BSTMap<K, V> fromSorted(
+            Iterator<? extends Map.Entry<K, V>> entries) {
+        List<K> keys = new ArrayList<>();
+        List<V> values = new ArrayList<>();
+        while (entries.hasNext()) {
+            Map.Entry<K, V> entry = entries.next();
+            keys.add(entry.getKey());
+            values.add(entry.getValue());
+        }
+        return fromSorted((K[]) keys.toArray(new Comparable[0]), (V[]) values.toArray());
+    }
+
+    /**
+     * Returns a perfectly balanced map holding the entries of both maps, in
+     * O(N + M): both are read in order, merged like in merge sort, and built
+     * with fromSorted(). Where both maps hold a key, the value of second wins.
+     * Neither map is changed.
+     */
+    @SuppressWarnings("unchecked")
+    public static <K extends Comparable<K>, V> BSTMap<K, V> merge(BSTMap<K, V> first,
+                                                                  BSTMap<K, V> second) {
+        BSTMap<K, V>.BSTNode[] a = first.nodesInOrder();
+        BSTMap<K, V>.BSTNode[] b = second.nodesInOrder();
+        K[] keys = (K[]) new Comparable[a.length + b.length];
+        V[] values = (V[]) new Object[a.length + b.length];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < a.length || j < b.length) {
+            int cmp;
+            if (i == a.length) {
+                cmp = 1;
+            } else if (j == b.length) {
+                cmp = -1;
+            } else {
+                cmp = a[i].key.compareTo(b[j].key);
+            }
+            if (cmp < 0) {
+                keys[n] = a[i].key;
+                values[n++] = a[i++].value;
+            } else {
+                if (cmp == 0) {
+                    i++;
+                }
+                keys[n] = b[j].key;
+                values[n++] = b[j++].value;
+            }
+        }
+        return fromSorted(Arrays.copyOf(keys, n), Arrays.copyOf(values, n));
+    }
+
+    /**
+     * Returns a read-only copy of this map laid out in one array in
+     * Eytzinger order, for maps that are built once and then only read.
+     * This map stays as it is and can still be changed; the copy will not
+     * see those changes.
+     */
+    public FrozenBSTMap<K, V> freeze() {
+        BSTNode[] nodes = nodesInOrder();
+        Object[] keys = new Object[size];
+        Object[] values = new Object[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = nodes[i].key;
+            values[i] = nodes[i].value;
+        }
+        return new FrozenBSTMap<>(keys, values, size);
+    }
+
+    /** Builds a balanced subtree of keys[lo..hi] and returns its root */
+    private BSTNode build(K[] keys, V[] values, int lo, int hi) {
+        if (lo > hi) {
+            return null;
+        }
+        int mid = (lo + hi) >>> 1;
+        BSTNode node = new BSTNode(keys[mid], values[mid],
+                build(keys, values, lo, mid - 1), build(keys, values, mid + 1, hi));
+        node.subtreeSize = hi - lo + 1;
+        return node;
     }
+
+    /** Returns every node in ascending order of key */
+    @SuppressWarnings("unchecked")
+    private BSTNode[] nodesInOrder() {
+        BSTNode[] nodes = (BSTNode[]) new BSTMap.BSTNode[size];
+        Deque<BSTNode> stack = new ArrayDeque<>();
+        int n = 0;
+        for (BSTNode x = root; x != null || !stack.isEmpty(); x = x.right) {
+            for (; x != null; x = x.left) {
+                stack.push(x);
+            }
+            x = stack.pop();
+            nodes[n++] = x;
+        }
+        return nodes;
+    }
+
+    /**
+     * Returns the number of links on the longest path from the root to a
+     * leaf, -1 for an empty map. Walks the tree level by level, so it works
+     * on a degenerate tree too.
+     */
+    public int height() {
+        if (root == null) {
+            return -1;
+        }
+        Deque<BSTNode> level = new ArrayDeque<>();
+        level.add(root);
+        int height = -1;
+        while (!level.isEmpty()) {
+            height++;
+            for (int i = level.size(); i > 0; i--) {
+                BSTNode x = level.poll();
+                if (x.left != null) {
+                    level.add(x.left);
+                }
+                if (x.right != null) {
+                    level.add(x.right);
+                }
+            }
+        }
+        return height;
+    }
+
+    /* ------------------------ Ordered operations ------------------------ */
+
+    /** Returns the smallest key in map, or null if map is empty */
+    public K min() {
+        if (root == null) {
+            return null;
+        }
+        BSTNode node = root;
+        while (node.left != null) {
+            node = node.left;
+        }
+        return node.key;
+    }
+
+    /** Returns the largest key in map, or null if map is empty */
+    public K max() {
+        if (root == null) {
+            return null;
+        }
+        BSTNode node = root;
+        while (node.right != null) {
+            node = node.right;
+        }
+        return node.key;
+    }
+
+    /** Returns the largest key less than or equal to key, or null if there is none */
+    public K floor(K key) {
+        BSTNode node = root;
+        K best = null;
+        while (node != null) {
+            int cmp = key.compareTo(node.key);
+            comparisons++;
+            if (cmp == 0) {
+                return node.key;
+            }
+            if (cmp < 0) {
+                node = node.left;
+            } else {
+                best = node.key;
+                node = node.right;
+            }
+        }
+        return best;
+    }
+
+    /** Returns the smallest key greater than or equal to key, or null if there is none */
+    public K ceiling(K key) {
+        BSTNode node = root;
+        K best = null;
+        while (node != null) {
+            int cmp = key.compareTo(node.key);
+            comparisons++;
+            if (cmp == 0) {
+                return node.key;
+            }
+            if (cmp > 0) {
+                node = node.right;
+            } else {
+                best = node.key;
+                node = node.left;
+            }
+        }
+        return best;
+    }
+
+    /** Returns the number of keys in map strictly less than key */
+    public int rank(K key) {
+        BSTNode node = root;
+        int rank = 0;
+        while (node != null) {
+            int cmp = key.compareTo(node.key);
+            comparisons++;
+            if (cmp == 0) {
+                return rank + subtreeSize(node.left);
+            }
+            if (cmp < 0) {
+                node = node.left;
+            } else {
+                rank += subtreeSize(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Returns the key of the given rank, i.e. the key with exactly rank
+     * smaller keys in map
+     * @throws IllegalArgumentException unless 0 <= rank < size()
+     */
+    public K select(int rank) {
+        if (rank < 0 || rank >= size) {
+            throw new IllegalArgumentException("rank " + rank + " is not in [0, " + size + ")");
+        }
+        BSTNode node = root;
+        while (true) {
+            int leftSize = subtreeSize(node.left);
+            if (rank == leftSize) {
+                return node.key;
+            }
+            if (rank < leftSize) {
+                node = node.left;
+            } else {
+                rank -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /** Returns the number of keys between lo and hi, both inclusive */
+    public int size(K lo, K hi) {
+        if (lo.compareTo(hi) > 0) {
+            return 0;
+        }
+        return rank(hi) - rank(lo) + (containsKey(hi) ? 1 : 0);
+    }
+
+    /**
+     * Returns the keys between lo and hi, both inclusive, in ascending
+     * order. The keys are found as they are iterated over, so taking the
+     * first k of them costs O(depth + k), however large the range is.
+     */
+    public Iterable<K> keys(K lo, K hi) {
+        return () -> new KeyIterator(lo, hi);
+    }
+
+    /**
+     * Returns a Set view of the keys, in ascending order. Removing from
+     * the set removes from map, but its iterator does not support remove().
+     */
+    @Override
+    public Set<K> keySet() {
+        return new AbstractSet<K>() {
+            @Override
+            public Iterator<K> iterator() {
+                return BSTMap.this.iterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public boolean contains(Object o) {
+                return o != null && containsKey((K) o);
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public boolean remove(Object o) {
+                if (o == null || !containsKey((K) o)) {
+                    return false;
+                }
+                BSTMap.this.remove((K) o);
+                return true;
+            }
+        };
+    }
+
+    /** Iterates over all keys in ascending order */
     @Override
     public Iterator<K> iterator() {
-        throw new UnsupportedOperationException();
+        return new KeyIterator(null, null);
+    }
+
+    /**
+     * Lazy in-order iterator over the keys between lo and hi (null for
+     * no bound). The stack holds the nodes whose key is still to come
+     * on the path to the next key, so it never holds more than the depth
+     * of the tree.
+     */
+    private class KeyIterator implements Iterator<K> {
+        private final Deque<BSTNode> stack = new ArrayDeque<>();
+        private final K hi;
+
+        KeyIterator(K lo, K hi) {
+            this.hi = hi;
+            // push the path to the smallest key >= lo
+            BSTNode node = root;
+            while (node != null) {
+                if (lo != null && lo.compareTo(node.key) > 0) {
+                    node = node.right;
+                } else {
+                    stack.push(node);
+                    node = node.left;
+                }
+            }
+            dropAboveHi();
+        }
+
+        /** Empty the stack once the next key is past hi */
+        private void dropAboveHi() {
+            if (hi != null && !stack.isEmpty() && hi.compareTo(stack.peek().key) < 0) {
+                stack.clear();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !stack.isEmpty();
+        }
+
+        @Override
+        public K next() {
+            if (stack.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            BSTNode node = stack.pop();
+            for (BSTNode x = node.right; x != null; x = x.left) {
+                stack.push(x);
+            }
+            dropAboveHi();
+            return node.key;
+        }
     }
 }
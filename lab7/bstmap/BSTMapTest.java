@@ -1,5 +1,6 @@
 package bstmap;
 
+import static org.junit.Assert.*;
 import org.junit.Test;
 
 public class BSTMapTest {
@@ -21,4 +22,33 @@ public class BSTMapTest {
         System.out.println(map.containsKey("j"));
         map.printInOrder();
     }
+
+    @Test
+    public void putReplacesValueTest() {
+        BSTMap<String, Integer> map = new BSTMap<>();
+        map.put("b", 1);
+        map.put("a", 2);
+        map.put("b", 3);
+        assertEquals(2, map.size());
+        assertEquals(3, map.get("b").intValue());
+    }
+
+    /** Sorted input makes a linked list, which must not overflow the stack. */
+    @Test
+    public void deepTreeTest() {
+        BSTMap<Integer, Integer> map = new BSTMap<>();
+        int n = 20000;
+        for (int i = 0; i < n; i++) {
+            map.put(i, i);
+        }
+        assertEquals(n, map.size());
+        assertEquals(n - 1, map.get(n - 1).intValue());
+        assertFalse(map.containsKey(n));
+        // put(i) compares against the i keys before it, both lookups against all n
+        assertEquals((long) n * (n - 1) / 2 + 2 * n, map.comparisonCount());
+
+        map.resetComparisonCount();
+        map.get(0);
+        assertEquals(1, map.comparisonCount());
+    }
 }
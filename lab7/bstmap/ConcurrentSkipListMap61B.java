@@ -0,0 +1,400 @@
+package bstmap;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicMarkableReference;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A thread-safe ordered map implemented with a lock-free skip list. Every
+ * node is on the bottom list, and on each level above with probability 1/2,
+ * so a search skips ahead in O(log N) expected steps without any balancing.
+ * Links and values are changed only by compareAndSet, never under a lock.
+ * remove() first sets the value of a node to null; that is the moment the
+ * key leaves the map, and a null value is never replaced. It then marks
+ * the links out of the node, top level down, and any later search unlinks
+ * the marked node on its way past (Herlihy and Shavit's lock-free list).
+ * put() on a key that is present swaps a non-null value for the new one,
+ * so a put and a remove racing on one key cannot both succeed; a put that
+ * finds a null value helps mark that node and inserts a new one instead.
+ * As null marks a removed value, put(key, null) is the same as remove(key).
+ * get(), containsKey() and iteration never write, so they are wait-free.
+ * Iterators, keySet() and keys(lo, hi) are weakly consistent: they return
+ * keys in ascending order, never throw ConcurrentModificationException and
+ * reflect some of the changes made after they were created.
+ * clear() is not atomic with respect to concurrent updates.
+ * @param <K> Key of map
+ * @param <V> Value paired with key
+ */
+public class ConcurrentSkipListMap61B<K extends Comparable<K>, V> implements Map61B<K, V> {
+    private static final int MAX_LEVEL = 32;
+
+    /** Sentinels: head is before every key, tail after every key */
+    private final Node head = new Node(null, null, MAX_LEVEL - 1);
+    private final Node tail = new Node(null, null, MAX_LEVEL - 1);
+    private final AtomicInteger size = new AtomicInteger();
+    /** Highest level any node has been given; searches start there, not at MAX_LEVEL */
+    private final AtomicInteger topLevel = new AtomicInteger();
+
+    /**
+     * Skip list node. value is null once the key is removed, and so are
+     * the values of the sentinels. next[i] is the link on level i, and its
+     * mark bit set means this node is being removed from level i.
+     */
+    private class Node {
+        final K key;
+        final AtomicReference<V> value;
+        final AtomicMarkableReference<Node>[] next;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Node(K key, V value, int topLevel) {
+            this.key = key;
+            this.value = new AtomicReference<>(value);
+            next = new AtomicMarkableReference[topLevel + 1];
+            for (int i = 0; i <= topLevel; i++) {
+                next[i] = new AtomicMarkableReference<>(null, false);
+            }
+        }
+
+        int topLevel() {
+            return next.length - 1;
+        }
+    }
+
+    public ConcurrentSkipListMap61B() {
+        clear();
+    }
+
+    /**
+     * Unlink all nodes from the head. A put racing with clear() may survive it.
+     * topLevel is left as it is, as a put may be linking a node up there.
+     */
+    @Override
+    public void clear() {
+        for (int level = 0; level < MAX_LEVEL; level++) {
+            head.next[level].set(tail, false);
+        }
+        size.set(0);
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        if (key == null) {
+            return false;
+        }
+        Node node = ceilingNode(key);
+        return isKey(node, key) && node.value.get() != null;
+    }
+
+    @Override
+    public V get(K key) {
+        if (key == null) {
+            return null;
+        }
+        Node node = ceilingNode(key);
+        return isKey(node, key) ? node.value.get() : null;
+    }
+
+    /**
+     * Get the number of entries in map, exact when no update is in progress
+     * @return the number of entries in map
+     */
+    @Override
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Insert a key-value pair into map, replacing the value if key is present
+     * @param key key in key-value pair
+     * @param value value in key-value pair, or null to remove key
+     */
+    @Override
+    public void put(K key, V value) {
+        if (key == null) {
+            return;
+        }
+        if (value == null) {
+            remove(key);
+            return;
+        }
+        int nodeLevel = randomLevel();
+        // raised before searching, so that find() fills in every level this node needs
+        int levels = topLevel.accumulateAndGet(nodeLevel, Math::max) + 1;
+        Node[] preds = newNodeArray(levels);
+        Node[] succs = newNodeArray(levels);
+        Node node;
+        while (true) {
+            if (find(key, preds, succs)) {
+                Node found = succs[0];
+                V old = found.value.get();
+                if (old != null && found.value.compareAndSet(old, value)) {
+                    return;
+                }
+                if (old == null) {
+                    // removed but maybe not yet marked: finish that, so find() unlinks it
+                    markLinks(found);
+                }
+                continue;
+            }
+            node = new Node(key, value, nodeLevel);
+            for (int level = 0; level <= nodeLevel; level++) {
+                node.next[level].set(succs[level], false);
+            }
+            // linking the bottom level puts key in map, the levels above are shortcuts
+            if (preds[0].next[0].compareAndSet(succs[0], node, false, false)) {
+                break;
+            }
+        }
+        size.incrementAndGet();
+        for (int level = 1; level <= nodeLevel; level++) {
+            while (true) {
+                Node succ = succs[level];
+                Node next = node.next[level].getReference();
+                if (next != succ && !node.next[level].compareAndSet(next, succ, false, false)) {
+                    return;  // marked: node is already being removed
+                }
+                if (preds[level].next[level].compareAndSet(succ, node, false, false)) {
+                    break;
+                }
+                find(key, preds, succs);
+                if (succs[0] != node) {
+                    return;  // removed before it was fully linked
+                }
+            }
+        }
+    }
+
+    @Override
+    public V remove(K key) {
+        return removeIf(key, null);
+    }
+
+    /** Removes key only if it is paired with value, atomically */
+    @Override
+    public V remove(K key, V value) {
+        if (value == null) {
+            return null;
+        }
+        return removeIf(key, value);
+    }
+
+    /**
+     * Removes key if it is paired with expected, or with any value if
+     * expected is null, and returns the value removed or null
+     */
+    private V removeIf(K key, V expected) {
+        if (key == null) {
+            return null;
+        }
+        // any node found was given a level no higher than topLevel is now
+        int levels = topLevel.get() + 1;
+        Node[] preds = newNodeArray(levels);
+        Node[] succs = newNodeArray(levels);
+        if (!find(key, preds, succs)) {
+            return null;
+        }
+        Node victim = succs[0];
+        while (true) {
+            V value = victim.value.get();
+            if (value == null || (expected != null && !expected.equals(value))) {
+                return null;
+            }
+            // whichever thread nulls the value is the one that removed key
+            if (victim.value.compareAndSet(value, null)) {
+                size.decrementAndGet();
+                markLinks(victim);
+                find(key, preds, succs);  // unlink it
+                return value;
+            }
+        }
+    }
+
+    /* ------------------------- Skip list helpers ------------------------- */
+
+    /** Returns a level from 0 with probability 1/2, 1 with 1/4, and so on */
+    private static int randomLevel() {
+        int bits = ThreadLocalRandom.current().nextInt();
+        return Math.min(Integer.numberOfTrailingZeros(bits), MAX_LEVEL - 1);
+    }
+
+    /**
+     * Marks the links out of a node whose value is null, top level down.
+     * Any thread may do this, any number of times.
+     */
+    private void markLinks(Node victim) {
+        boolean[] marked = {false};
+        for (int level = victim.topLevel(); level >= 0; level--) {
+            Node succ = victim.next[level].get(marked);
+            while (!marked[0]) {
+                victim.next[level].compareAndSet(succ, succ, false, true);
+                succ = victim.next[level].get(marked);
+            }
+        }
+    }
+
+    /** Returns true if node comes before key; head before and tail after everything */
+    private boolean before(Node node, K key) {
+        return node != tail && (node == head || node.key.compareTo(key) < 0);
+    }
+
+    private boolean isKey(Node node, K key) {
+        return node != tail && node.key.compareTo(key) == 0;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Node[] newNodeArray(int length) {
+        return (Node[]) new ConcurrentSkipListMap61B.Node[length];
+    }
+
+    /**
+     * Fills preds[i] and succs[i] with the nodes on each level i up to
+     * topLevel, or the last level the arrays hold, just before and at or
+     * after key, unlinking marked nodes on the way.
+     * Returns true if succs[0] holds key.
+     */
+    private boolean find(K key, Node[] preds, Node[] succs) {
+        boolean[] marked = {false};
+        retry:
+        while (true) {
+            Node pred = head;
+            Node curr = null;
+            for (int level = Math.min(topLevel.get(), preds.length - 1); level >= 0; level--) {
+                curr = pred.next[level].getReference();
+                while (true) {
+                    Node succ = curr.next[level].get(marked);
+                    while (marked[0]) {
+                        if (!pred.next[level].compareAndSet(curr, succ, false, false)) {
+                            continue retry;  // pred changed under us, start over
+                        }
+                        curr = succ;
+                        succ = curr.next[level].get(marked);
+                    }
+                    if (!before(curr, key)) {
+                        break;
+                    }
+                    pred = curr;
+                    curr = succ;
+                }
+                preds[level] = pred;
+                succs[level] = curr;
+            }
+            return isKey(curr, key);
+        }
+    }
+
+    /**
+     * Returns the first node still in map with a key greater than or
+     * equal to key, or tail. Skips marked nodes instead of unlinking them.
+     */
+    private Node ceilingNode(K key) {
+        boolean[] marked = {false};
+        Node pred = head;
+        Node curr = null;
+        for (int level = topLevel.get(); level >= 0; level--) {
+            curr = pred.next[level].getReference();
+            while (true) {
+                Node succ = curr.next[level].get(marked);
+                while (marked[0]) {
+                    curr = succ;
+                    succ = curr.next[level].get(marked);
+                }
+                if (!before(curr, key)) {
+                    break;
+                }
+                pred = curr;
+                curr = succ;
+            }
+        }
+        return curr;
+    }
+
+    /* ------------------------ Iteration and ranges ------------------------ */
+
+    /**
+     * Returns the keys between lo and hi, both inclusive, in ascending
+     * order, weakly consistent like iterator()
+     */
+    public Iterable<K> keys(K lo, K hi) {
+        return () -> new KeyIterator(ceilingNode(lo), hi);
+    }
+
+    /** Returns a Set view of the keys, in ascending order */
+    @Override
+    public Set<K> keySet() {
+        return new AbstractSet<K>() {
+            @Override
+            public Iterator<K> iterator() {
+                return ConcurrentSkipListMap61B.this.iterator();
+            }
+
+            @Override
+            public int size() {
+                return ConcurrentSkipListMap61B.this.size();
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public boolean contains(Object o) {
+                return o != null && containsKey((K) o);
+            }
+        };
+    }
+
+    /** Iterates over keys in ascending order along the bottom level */
+    @Override
+    public Iterator<K> iterator() {
+        return new KeyIterator(head.next[0].getReference(), null);
+    }
+
+    /** Walks the bottom level from a node up to hi, or to the end if hi is null */
+    private class KeyIterator implements Iterator<K> {
+        private final K hi;
+        private Node next;
+        private K last;
+
+        KeyIterator(Node from, K hi) {
+            this.hi = hi;
+            next = skipRemoved(from);
+        }
+
+        /** Returns the first node from node on that is not being removed, or null */
+        private Node skipRemoved(Node node) {
+            while (node != tail && (node.next[0].isMarked() || node.value.get() == null)) {
+                node = node.next[0].getReference();
+            }
+            if (node == tail || (hi != null && hi.compareTo(node.key) < 0)) {
+                return null;
+            }
+            return node;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public K next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            last = next.key;
+            next = skipRemoved(next.next[0].getReference());
+            return last;
+        }
+
+        @Override
+        public void remove() {
+            if (last == null) {
+                throw new IllegalStateException();
+            }
+            ConcurrentSkipListMap61B.this.remove(last);
+            last = null;
+        }
+    }
+}
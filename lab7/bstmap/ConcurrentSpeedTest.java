@@ -0,0 +1,154 @@
+package bstmap;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Scanner;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Measures the throughput of maps shared by 1..T threads running a mix of
+ * get() and put() on random Integer keys, comparing ConcurrentSkipListMap61B
+ * with a BSTMap guarded by one global lock.
+ */
+public class ConcurrentSpeedTest {
+
+    /** Number of distinct keys the threads work on */
+    private static final int KEY_RANGE = 1 << 16;
+
+    /**
+     * Requests user input and performs throughput tests for every thread
+     * count from 1 to T. ARGS is unused.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Scanner input = new Scanner(System.in);
+
+        System.out.println("\n This program runs T threads doing random gets and puts\n"
+                + " on a shared map and reports total ops/sec.\n");
+        System.out.print("What would you like the max # threads T to be?: ");
+        int T = InsertRandomSpeedTest.waitForPositiveInt(input);
+
+        Integer[] keys = new Integer[KEY_RANGE];
+        for (int i = 0; i < KEY_RANGE; i++) {
+            keys[i] = i;
+        }
+
+        String repeat = "y";
+        do {
+            System.out.print("\nEnter % of operations that are reads (1-100): ");
+            int readPercent = Math.min(100, InsertRandomSpeedTest.waitForPositiveInt(input));
+            System.out.print("Enter # operations per thread: ");
+            int ops = InsertRandomSpeedTest.waitForPositiveInt(input);
+
+            for (int threads = 1; threads <= T; threads++) {
+                double concurrent = timeThreads(new ConcurrentSkipListMap61B<>(), keys,
+                        threads, ops, readPercent);
+                double locked = timeThreads(new SynchronizedMap61B<>(new BSTMap<Integer, Integer>()), keys,
+                        threads, ops, readPercent);
+                System.out.printf("%d threads: ConcurrentSkipListMap61B %.0f ops/sec, "
+                        + "synchronized BSTMap %.0f ops/sec\n", threads, concurrent, locked);
+            }
+
+            System.out.print("\nWould you like to try more timed-tests? (y/n)");
+            repeat = input.nextLine();
+        } while (!repeat.equalsIgnoreCase("n") && !repeat.equalsIgnoreCase("no"));
+        input.close();
+    }
+
+    /**
+     * Starts threads that each run ops random operations on map, readPercent
+     * percent of them get() and the rest put(), and returns total ops/sec
+     */
+    public static double timeThreads(Map61B<Integer, Integer> map, Integer[] keys,
+                                     int threads, int ops, int readPercent)
+            throws InterruptedException {
+        // fill the map first so reads mostly hit, in random order so that
+        // an unbalanced tree does not degenerate into a list
+        SplittableRandom fill = new SplittableRandom(61);
+        for (int i = 0; i < keys.length; i += 2) {
+            map.put(keys[fill.nextInt(keys.length)], i);
+        }
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            SplittableRandom r = new SplittableRandom(t);
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < ops; i++) {
+                    Integer key = keys[r.nextInt(keys.length)];
+                    if (r.nextInt(100) < readPercent) {
+                        map.get(key);
+                    } else {
+                        map.put(key, i);
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return (double) threads * ops / ((System.nanoTime() - begin) / 1e9);
+    }
+
+    /** Guards every operation of a Map61B with one lock */
+    private static class SynchronizedMap61B<K, V> implements Map61B<K, V> {
+        private final Map61B<K, V> map;
+
+        SynchronizedMap61B(Map61B<K, V> map) {
+            this.map = map;
+        }
+
+        @Override
+        public synchronized void clear() {
+            map.clear();
+        }
+
+        @Override
+        public synchronized boolean containsKey(K key) {
+            return map.containsKey(key);
+        }
+
+        @Override
+        public synchronized V get(K key) {
+            return map.get(key);
+        }
+
+        @Override
+        public synchronized int size() {
+            return map.size();
+        }
+
+        @Override
+        public synchronized void put(K key, V value) {
+            map.put(key, value);
+        }
+
+        @Override
+        public synchronized Set<K> keySet() {
+            return map.keySet();
+        }
+
+        @Override
+        public synchronized V remove(K key) {
+            return map.remove(key);
+        }
+
+        @Override
+        public synchronized V remove(K key, V value) {
+            return map.remove(key, value);
+        }
+
+        @Override
+        public synchronized Iterator<K> iterator() {
+            return map.iterator();
+        }
+    }
+}
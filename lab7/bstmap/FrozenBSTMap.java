@@ -0,0 +1,226 @@
+package bstmap;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Read-only ordered map made by BSTMap.freeze(), holding the keys in one
+ * array in Eytzinger order: the root at index 1 and the children of index k
+ * at 2k and 2k + 1, like a binary heap. The tree is perfectly balanced and
+ * has no links to follow, and the top levels that every search passes
+ * through sit together at the front of the array, where they stay cached.
+ *
+ * get() descends with k = 2k + (keys[k] < key), without stopping early on
+ * a match, so the only branch taken per level is the loop test. The last
+ * step right reached the smallest key at least as large as the one sought,
+ * and shifting the descent's trailing one bits away from k lands on it.
+ *
+ * Comparing two key objects still means loading both from wherever the
+ * heap put them, so when every key is an Integer or a Long the keys are
+ * also copied into a long[] in the same order, and get() descends over
+ * plain numbers in adjacent memory without calling compareTo() at all.
+ *
+ * put(), remove() and clear() throw UnsupportedOperationException.
+ * @param <K> Key of map
+ * @param <V> Value paired with key
+ */
+public class FrozenBSTMap<K extends Comparable<K>, V> implements Map61B<K, V> {
+    private final int size;
+    /** keys[k] for k in 1..size in Eytzinger order; index 0 is unused */
+    private final Object[] keys;
+    private final Object[] values;
+    /** The same keys as numbers if they are all Integer or all Long, otherwise null */
+    private final long[] longKeys;
+
+    /** Lays out the size entries of sortedKeys and sortedValues in Eytzinger order */
+    FrozenBSTMap(Object[] sortedKeys, Object[] sortedValues, int size) {
+        this.size = size;
+        keys = new Object[size + 1];
+        values = new Object[size + 1];
+        fill(sortedKeys, sortedValues, 0, 1);
+        longKeys = toLongs(keys, size);
+    }
+
+    /** Returns keys[1..size] as longs if they are all Integer or all Long, otherwise null */
+    private static long[] toLongs(Object[] keys, int size) {
+        if (size == 0 || !(keys[1] instanceof Integer || keys[1] instanceof Long)) {
+            return null;
+        }
+        Class<?> type = keys[1].getClass();
+        long[] longs = new long[size + 1];
+        for (int k = 1; k <= size; k++) {
+            if (keys[k].getClass() != type) {
+                return null;
+            }
+            longs[k] = ((Number) keys[k]).longValue();
+        }
+        return longs;
+    }
+
+    /**
+     * Fills the subtree at index k with the sorted entries from i on, in
+     * order, and returns the index of the first entry not used
+     */
+    private int fill(Object[] sortedKeys, Object[] sortedValues, int i, int k) {
+        if (k <= size) {
+            i = fill(sortedKeys, sortedValues, i, 2 * k);
+            keys[k] = sortedKeys[i];
+            values[k] = sortedValues[i];
+            i = fill(sortedKeys, sortedValues, i + 1, 2 * k + 1);
+        }
+        return i;
+    }
+
+    /**
+     * Returns the index of the smallest key greater than or equal to key,
+     * or 0 if every key is smaller
+     */
+    @SuppressWarnings("unchecked")
+    private int lowerBound(K key) {
+        if (longKeys != null && key.getClass() == keys[1].getClass()) {
+            return lowerBound(((Number) key).longValue());
+        }
+        int k = 1;
+        while (k <= size) {
+            k = 2 * k + (((K) keys[k]).compareTo(key) < 0 ? 1 : 0);
+        }
+        // undo the steps right taken after the last step left
+        return k >>> (Integer.numberOfTrailingZeros(~k) + 1);
+    }
+
+    /** lowerBound() over longKeys */
+    private int lowerBound(long key) {
+        long[] a = longKeys;
+        int k = 1;
+        while (k <= size) {
+            k = 2 * k + (a[k] < key ? 1 : 0);
+        }
+        return k >>> (Integer.numberOfTrailingZeros(~k) + 1);
+    }
+
+    /** Returns true if index k, as returned by lowerBound(key), holds key */
+    @SuppressWarnings("unchecked")
+    private boolean holds(int k, K key) {
+        if (k == 0) {
+            return false;
+        }
+        if (longKeys != null && key.getClass() == keys[1].getClass()) {
+            return longKeys[k] == ((Number) key).longValue();
+        }
+        return ((K) keys[k]).compareTo(key) == 0;
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        return key != null && holds(lowerBound(key), key);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(K key) {
+        if (key == null) {
+            return null;
+        }
+        int k = lowerBound(key);
+        return holds(k, key) ? (V) values[k] : null;
+    }
+
+    /** Returns the smallest key greater than or equal to key, or null if there is none */
+    @SuppressWarnings("unchecked")
+    public K ceiling(K key) {
+        return (K) keys[lowerBound(key)];
+    }
+
+    /**
+     * Get the number of entries in map
+     * @return the number of entries in map
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException("frozen maps are read-only");
+    }
+
+    @Override
+    public void put(K key, V value) {
+        throw new UnsupportedOperationException("frozen maps are read-only");
+    }
+
+    @Override
+    public V remove(K key) {
+        throw new UnsupportedOperationException("frozen maps are read-only");
+    }
+
+    @Override
+    public V remove(K key, V value) {
+        throw new UnsupportedOperationException("frozen maps are read-only");
+    }
+
+    /** Returns a Set view of the keys, in ascending order */
+    @Override
+    public Set<K> keySet() {
+        return new AbstractSet<K>() {
+            @Override
+            public Iterator<K> iterator() {
+                return FrozenBSTMap.this.iterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public boolean contains(Object o) {
+                return o != null && containsKey((K) o);
+            }
+        };
+    }
+
+    /** Iterates over keys in ascending order, moving from index to in-order successor */
+    @Override
+    public Iterator<K> iterator() {
+        return new Iterator<K>() {
+            private int k = leftmost(1);
+
+            /** Returns the index of the smallest key in the subtree at k, or 0 if it is empty */
+            private int leftmost(int k) {
+                if (k > size) {
+                    return 0;
+                }
+                while (2 * k <= size) {
+                    k = 2 * k;
+                }
+                return k;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return k != 0;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public K next() {
+                if (k == 0) {
+                    throw new NoSuchElementException();
+                }
+                K key = (K) keys[k];
+                if (2 * k + 1 <= size) {
+                    k = leftmost(2 * k + 1);
+                } else {
+                    // climb while k is a right child, then once more
+                    k = k >>> (Integer.numberOfTrailingZeros(~k) + 1);
+                }
+                return key;
+            }
+        };
+    }
+}
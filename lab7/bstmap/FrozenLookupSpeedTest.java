@@ -0,0 +1,87 @@
+package bstmap;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.Scanner;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Times get() on a map of N random Integer keys that is built once and
+ * then only read: BSTMap as built by put(), the same keys loaded balanced
+ * with BSTMap.fromSorted(), its freeze() copy in Eytzinger order, and
+ * java.util.TreeMap. Half of the lookups hit.
+ */
+public class FrozenLookupSpeedTest {
+    private static final int LOOKUPS = 2000000;
+    private static final int ROUNDS = 3;
+
+    /**
+     * Requests user input and times lookups on each map. ARGS is unused.
+     */
+    public static void main(String[] args) throws IOException {
+        Scanner input = new Scanner(System.in);
+
+        System.out.println("This program times " + LOOKUPS + " random get() calls on "
+                + "read-only maps of N Integer keys.");
+
+        String repeat = "y";
+        do {
+            System.out.print("\nEnter # keys N: ");
+            int N = InsertRandomSpeedTest.waitForPositiveInt(input);
+            time(N);
+
+            System.out.print("\nWould you like to try more timed-tests? (y/n): ");
+            repeat = input.nextLine();
+        } while (!repeat.equalsIgnoreCase("n") && !repeat.equalsIgnoreCase("no"));
+        input.close();
+    }
+
+    /** Prints the best of a few rounds of lookups per map, in ns per get() */
+    public static void time(int N) {
+        Random r = new Random(61);
+        BSTMap<Integer, Integer> bst = new BSTMap<>();
+        TreeMap<Integer, Integer> treeMap = new TreeMap<>();
+        for (int i = 0; i < N; i++) {
+            // even keys are in the maps, odd keys miss
+            int key = 2 * r.nextInt(N);
+            bst.put(key, i);
+            treeMap.put(key, i);
+        }
+        Integer[] sortedKeys = treeMap.keySet().toArray(new Integer[0]);
+        Integer[] sortedValues = treeMap.values().toArray(new Integer[0]);
+        BSTMap<Integer, Integer> balanced = BSTMap.fromSorted(sortedKeys, sortedValues);
+        FrozenBSTMap<Integer, Integer> frozen = bst.freeze();
+
+        Integer[] queries = new Integer[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            queries[i] = r.nextInt(2 * N);
+        }
+
+        System.out.printf("BSTMap (height %d): %.1f ns/get\n", bst.height(),
+                time(bst::get, queries));
+        System.out.printf("BSTMap.fromSorted (height %d): %.1f ns/get\n", balanced.height(),
+                time(balanced::get, queries));
+        System.out.printf("FrozenBSTMap: %.1f ns/get\n", time(frozen::get, queries));
+        System.out.printf("Java's Built-in TreeMap: %.1f ns/get\n", time(treeMap::get, queries));
+    }
+
+    /** Returns the best time per call of get over queries, in ns */
+    private static double time(Function<Integer, Integer> get, Integer[] queries) {
+        double best = Double.MAX_VALUE;
+        long hits = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (Integer query : queries) {
+                if (get.apply(query) != null) {
+                    hits++;
+                }
+            }
+            best = Math.min(best, (double) (System.nanoTime() - start) / queries.length);
+        }
+        if (hits == 0) {
+            System.out.println("  (no lookup hit)");
+        }
+        return best;
+    }
+}
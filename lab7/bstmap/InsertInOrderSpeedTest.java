@@ -33,8 +33,12 @@ public class InsertInOrderSpeedTest {
             int N = i.waitForPositiveInt(input);
             timeInOrderMap61B(new ULLMap<>(), N);
             timeInOrderMap61B(new BSTMap<>(), N);
+            timeInOrderMap61B(new LLRBMap<>(), N);
+            timeInOrderMap61B(new BPlusTreeMap<>(), N);
             timeInOrderTreeMap(new TreeMap<>(), N);
             timeInOrderHashMap(new HashMap<>(), N);
+            timeFromSorted(N);
+            doublingSweep(N);
 
             System.out.print("Would you like to try more timed-tests? (y/n): ");
             repeat = input.nextLine();
@@ -88,6 +92,10 @@ public class InsertInOrderSpeedTest {
         try {
             double mapTime = insertInOrder(map, N);
             System.out.printf(map.getClass() + ": %.2f sec\n", mapTime);
+            if (map instanceof BSTMap) {
+                System.out.printf("  %.1f compareTo() calls per put\n",
+                        (double) ((BSTMap<String, Integer>) map).comparisonCount() / N);
+            }
         } catch (StackOverflowError e) {
             printInfoOnStackOverflow(N);
         } catch (RuntimeException e) {
@@ -127,6 +135,54 @@ public class InsertInOrderSpeedTest {
         }
     }
 
+    /**
+     * Prints the time BSTMap.fromSorted() takes to build a balanced map of
+     * the same N in-order strings, counting the time to generate them
+     */
+    public static void timeFromSorted(int N) {
+        Stopwatch sw = new Stopwatch();
+        String[] keys = new String[N];
+        Integer[] values = new Integer[N];
+        String s = "cat";
+        for (int i = 0; i < N; i++) {
+            s = StringUtils.nextString(s);
+            keys[i] = s;
+            values[i] = i;
+        }
+        BSTMap<String, Integer> map = BSTMap.fromSorted(keys, values);
+        System.out.printf("BSTMap.fromSorted: %.2f sec, height %d\n", sw.elapsedTime(),
+                map.height());
+    }
+
+    /**
+     * Prints the in-order insert time of BSTMap and LLRBMap for sizes
+     * doubling from 1000 up to N, with the ratio to the previous size.
+     * A ratio near 4 means quadratic growth, near 2 means N log N.
+     */
+    public static void doublingSweep(int N) {
+        System.out.println("\n        N    BSTMap   ratio    LLRBMap   ratio");
+        double lastBST = Double.NaN;
+        double lastLLRB = Double.NaN;
+        for (int n = 1000; n <= N; n *= 2) {
+            // Stopwatch only counts milliseconds, too coarse for small N
+            double bst;
+            long start = System.nanoTime();
+            try {
+                insertInOrder(new BSTMap<>(), n);
+                bst = (System.nanoTime() - start) / 1e9;
+            } catch (StackOverflowError e) {
+                bst = Double.NaN;
+            }
+            start = System.nanoTime();
+            insertInOrder(new LLRBMap<>(), n);
+            double llrb = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%9d  %8.3f  %6.2f  %9.3f  %6.2f\n", n, bst, bst / lastBST,
+                    llrb, llrb / lastLLRB);
+            lastBST = bst;
+            lastLLRB = llrb;
+        }
+    }
+
     /* ---------------------- Private methods ---------------------- */
 
     /**
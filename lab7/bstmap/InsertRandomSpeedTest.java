@@ -31,6 +31,8 @@ public class InsertRandomSpeedTest {
             int N = waitForPositiveInt(input);
             timeRandomMap61B(new ULLMap<>(), N, L);
             timeRandomMap61B(new BSTMap<>(), N, L);
+            timeRandomMap61B(new LLRBMap<>(), N, L);
+            timeRandomMap61B(new BPlusTreeMap<>(), N, L);
             timeRandomTreeMap(new TreeMap<>(), N, L);
             timeRandomHashMap(new HashMap<>(), N, L);
 
@@ -85,6 +87,10 @@ public class InsertRandomSpeedTest {
         try {
             double mapTime = insertRandom(map, N, L);
             System.out.printf(map.getClass() + ": %.2f sec\n", mapTime);
+            if (map instanceof BSTMap) {
+                System.out.printf("  %.1f compareTo() calls per put\n",
+                        (double) ((BSTMap<String, Integer>) map).comparisonCount() / N);
+            }
         } catch (StackOverflowError e) {
             printInfoOnStackOverflow(N, L);
         } catch (RuntimeException e) {
@@ -0,0 +1,341 @@
+package bstmap;
+
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Ordered map implemented with a left-leaning red-black tree, a BST that
+ * mirrors a 2-3 tree: a red link glues a node to its parent as one 3-node.
+ * Rotations and color flips after every put and remove keep every path
+ * from the root to a null link at the same number of black links, so the
+ * height stays below 2 lg N and put/get/remove are O(log N) even when keys
+ * arrive in sorted order, where BSTMap degenerates into a linked list.
+ * @param <K> Key of map
+ * @param <V> Value paired with key
+ */
+public class LLRBMap<K extends Comparable<K>, V> implements Map61B<K, V> {
+    private static final boolean RED = true;
+    private static final boolean BLACK = false;
+
+    private int size;
+    private Node root;
+
+    /**
+     * Node is used to store Key-Value pair of each tree node, point to sub
+     * nodes, and record the color of the link from its parent
+     */
+    private class Node {
+        K key;
+        V value;
+        Node left;
+        Node right;
+        boolean color;
+
+        Node(K key, V value, boolean color) {
+            this.key = key;
+            this.value = value;
+            this.color = color;
+        }
+    }
+
+    public LLRBMap() {
+        size = 0;
+        root = null;
+    }
+
+    /**
+     * Clear off all node in this map
+     */
+    @Override
+    public void clear() {
+        size = 0;
+        root = null;
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        return key != null && findNode(key) != null;
+    }
+
+    @Override
+    public V get(K key) {
+        if (key == null) {
+            return null;
+        }
+        Node node = findNode(key);
+        return node == null ? null : node.value;
+    }
+
+    /** Returns the node holding key, or null. The tree is shallow, so a loop is enough. */
+    private Node findNode(K key) {
+        Node x = root;
+        while (x != null) {
+            int cmp = key.compareTo(x.key);
+            if (cmp == 0) {
+                return x;
+            }
+            x = cmp < 0 ? x.left : x.right;
+        }
+        return null;
+    }
+
+    /**
+     * Get the number of node in map
+     * @return the number of node in map
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of links on the longest path from the root to a
+     * leaf, -1 for an empty map
+     */
+    public int height() {
+        return height(root);
+    }
+
+    private int height(Node x) {
+        if (x == null) {
+            return -1;
+        }
+        return 1 + Math.max(height(x.left), height(x.right));
+    }
+
+    /**
+     * Insert a key-value pair into map, replacing the value if key is present
+     * @param key key in key-value pair
+     * @param value value in key-value pair
+     */
+    @Override
+    public void put(K key, V value) {
+        if (key == null) {
+            return;
+        }
+        root = put(root, key, value);
+        root.color = BLACK;
+    }
+
+    private Node put(Node h, K key, V value) {
+        if (h == null) {
+            size++;
+            return new Node(key, value, RED);
+        }
+        int cmp = key.compareTo(h.key);
+        if (cmp < 0) {
+            h.left = put(h.left, key, value);
+        } else if (cmp > 0) {
+            h.right = put(h.right, key, value);
+        } else {
+            h.value = value;
+        }
+        return balance(h);
+    }
+
+    @Override
+    public V remove(K key) {
+        if (key == null) {
+            return null;
+        }
+        Node node = findNode(key);
+        if (node == null) {
+            return null;
+        }
+        V value = node.value;
+        // make the root red if both children are black, as the 2-3 tree
+        // delete has to start from a node that is not a 2-node
+        if (!isRed(root.left) && !isRed(root.right)) {
+            root.color = RED;
+        }
+        root = remove(root, key);
+        if (root != null) {
+            root.color = BLACK;
+        }
+        size--;
+        return value;
+    }
+
+    @Override
+    public V remove(K key, V value) {
+        V current = get(key);
+        if (current == null || !current.equals(value)) {
+            return null;
+        }
+        return remove(key);
+    }
+
+    /** Removes key, which must be in the tree rooted at h */
+    private Node remove(Node h, K key) {
+        if (key.compareTo(h.key) < 0) {
+            if (!isRed(h.left) && !isRed(h.left.left)) {
+                h = moveRedLeft(h);
+            }
+            h.left = remove(h.left, key);
+        } else {
+            if (isRed(h.left)) {
+                h = rotateRight(h);
+            }
+            if (key.compareTo(h.key) == 0 && h.right == null) {
+                return null;
+            }
+            if (!isRed(h.right) && !isRed(h.right.left)) {
+                h = moveRedRight(h);
+            }
+            if (key.compareTo(h.key) == 0) {
+                // replace h by its successor, then remove the successor
+                Node min = h.right;
+                while (min.left != null) {
+                    min = min.left;
+                }
+                h.key = min.key;
+                h.value = min.value;
+                h.right = removeMin(h.right);
+            } else {
+                h.right = remove(h.right, key);
+            }
+        }
+        return balance(h);
+    }
+
+    private Node removeMin(Node h) {
+        if (h.left == null) {
+            return null;
+        }
+        if (!isRed(h.left) && !isRed(h.left.left)) {
+            h = moveRedLeft(h);
+        }
+        h.left = removeMin(h.left);
+        return balance(h);
+    }
+
+    /* ------------------------ Red-black helpers ------------------------ */
+
+    private boolean isRed(Node x) {
+        return x != null && x.color == RED;
+    }
+
+    private Node rotateLeft(Node h) {
+        Node x = h.right;
+        h.right = x.left;
+        x.left = h;
+        x.color = h.color;
+        h.color = RED;
+        return x;
+    }
+
+    private Node rotateRight(Node h) {
+        Node x = h.left;
+        h.left = x.right;
+        x.right = h;
+        x.color = h.color;
+        h.color = RED;
+        return x;
+    }
+
+    private void flipColors(Node h) {
+        h.color = !h.color;
+        h.left.color = !h.left.color;
+        h.right.color = !h.right.color;
+    }
+
+    /**
+     * Assuming h is red and both h.left and h.left.left are black,
+     * make h.left or one of its children red
+     */
+    private Node moveRedLeft(Node h) {
+        flipColors(h);
+        if (isRed(h.right.left)) {
+            h.right = rotateRight(h.right);
+            h = rotateLeft(h);
+            flipColors(h);
+        }
+        return h;
+    }
+
+    /**
+     * Assuming h is red and both h.right and h.right.left are black,
+     * make h.right or one of its children red
+     */
+    private Node moveRedRight(Node h) {
+        flipColors(h);
+        if (isRed(h.left.left)) {
+            h = rotateRight(h);
+            flipColors(h);
+        }
+        return h;
+    }
+
+    /** Restore the left-leaning red-black invariants on the way up */
+    private Node balance(Node h) {
+        if (isRed(h.right) && !isRed(h.left)) {
+            h = rotateLeft(h);
+        }
+        if (isRed(h.left) && isRed(h.left.left)) {
+            h = rotateRight(h);
+        }
+        if (isRed(h.left) && isRed(h.right)) {
+            flipColors(h);
+        }
+        return h;
+    }
+
+    /** Returns a Set view of the keys, in ascending order */
+    @Override
+    public Set<K> keySet() {
+        return new AbstractSet<K>() {
+            @Override
+            public Iterator<K> iterator() {
+                return LLRBMap.this.iterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public boolean contains(Object o) {
+                return o != null && containsKey((K) o);
+            }
+        };
+    }
+
+    /** Iterates over keys in ascending order, keeping the path to the next key on a stack */
+    @Override
+    public Iterator<K> iterator() {
+        return new Iterator<K>() {
+            private final Deque<Node> stack = new ArrayDeque<>();
+
+            {
+                pushLeft(root);
+            }
+
+            private void pushLeft(Node x) {
+                for (; x != null; x = x.left) {
+                    stack.push(x);
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return !stack.isEmpty();
+            }
+
+            @Override
+            public K next() {
+                if (stack.isEmpty()) {
+                    throw new NoSuchElementException();
+                }
+                Node x = stack.pop();
+                pushLeft(x.right);
+                return x.key;
+            }
+        };
+    }
+}
@@ -0,0 +1,133 @@
+package bstmap;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Scanner;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+/**
+ * Compares BSTMap, BPlusTreeMap at a few fanouts and java.util.TreeMap on
+ * random inserts, sorted inserts and range scans of N Strings of length L.
+ * Each range scan counts the keys between two stored keys W ranks apart.
+ */
+public class OrderedMapSpeedTest {
+    /** Sorted inserts into BSTMap take quadratic time, so they are skipped above this */
+    private static final int BST_SORTED_LIMIT = 20000;
+    private static final int SCANS = 10000;
+
+    /** The two operations under test, whatever the map */
+    private static class Target {
+        final BiConsumer<String, Integer> put;
+        final BiFunction<String, String, Iterable<String>> keys;
+
+        Target(BiConsumer<String, Integer> put,
+               BiFunction<String, String, Iterable<String>> keys) {
+            this.put = put;
+            this.keys = keys;
+        }
+    }
+
+    private static final Map<String, Supplier<Target>> IMPLEMENTATIONS = new LinkedHashMap<>();
+
+    static {
+        IMPLEMENTATIONS.put("BSTMap", () -> {
+            BSTMap<String, Integer> m = new BSTMap<>();
+            return new Target(m::put, m::keys);
+        });
+        for (int fanout : new int[] {16, 64, 256}) {
+            IMPLEMENTATIONS.put("BPlusTreeMap(" + fanout + ")", () -> {
+                BPlusTreeMap<String, Integer> m = new BPlusTreeMap<>(fanout);
+                return new Target(m::put, m::keys);
+            });
+        }
+        IMPLEMENTATIONS.put("TreeMap", () -> {
+            TreeMap<String, Integer> m = new TreeMap<>();
+            return new Target(m::put, (lo, hi) -> m.subMap(lo, true, hi, true).keySet());
+        });
+    }
+
+    /**
+     * Requests user input and times each map. ARGS is unused.
+     */
+    public static void main(String[] args) throws IOException {
+        Scanner input = new Scanner(System.in);
+
+        System.out.println("This program times random inserts, sorted inserts and "
+                + "range scans of Strings of length L in ordered maps.");
+        System.out.print("Please enter desired length of each string: ");
+        int L = InsertRandomSpeedTest.waitForPositiveInt(input);
+        System.out.print("Please enter the width W of each range scan: ");
+        int W = InsertRandomSpeedTest.waitForPositiveInt(input);
+
+        String repeat = "y";
+        do {
+            System.out.print("\nEnter # strings to insert into the maps: ");
+            int N = InsertRandomSpeedTest.waitForPositiveInt(input);
+            time(N, L, W);
+
+            System.out.print("Would you like to try more timed-tests? (y/n): ");
+            repeat = input.nextLine();
+        } while (!repeat.equalsIgnoreCase("n") && !repeat.equalsIgnoreCase("no"));
+        input.close();
+    }
+
+    /** Prints one row of timings per map for N keys */
+    public static void time(int N, int L, int W) {
+        String[] random = new String[N];
+        for (int i = 0; i < N; i++) {
+            random[i] = StringUtils.randomString(L);
+        }
+        String[] sorted = random.clone();
+        Arrays.sort(sorted);
+        sorted = Arrays.stream(sorted).distinct().toArray(String[]::new);
+        // the same scans for every map
+        Random r = new Random(61);
+        int[] starts = new int[SCANS];
+        for (int i = 0; i < SCANS; i++) {
+            starts[i] = r.nextInt(Math.max(1, sorted.length - W));
+        }
+
+        System.out.printf("\n%-18s %12s %12s %12s\n", "", "random put", "sorted put",
+                SCANS + " scans");
+        for (Map.Entry<String, Supplier<Target>> e : IMPLEMENTATIONS.entrySet()) {
+            Target target = e.getValue().get();
+            long start = System.nanoTime();
+            for (int i = 0; i < N; i++) {
+                target.put.accept(random[i], i);
+            }
+            double randomPut = seconds(start);
+
+            start = System.nanoTime();
+            long found = 0;
+            for (int s : starts) {
+                String hi = sorted[Math.min(s + W - 1, sorted.length - 1)];
+                for (String key : target.keys.apply(sorted[s], hi)) {
+                    found++;
+                }
+            }
+            double scan = seconds(start);
+
+            double sortedPut = Double.NaN;
+            if (!e.getKey().equals("BSTMap") || N <= BST_SORTED_LIMIT) {
+                Target fresh = e.getValue().get();
+                start = System.nanoTime();
+                for (int i = 0; i < sorted.length; i++) {
+                    fresh.put.accept(sorted[i], i);
+                }
+                sortedPut = seconds(start);
+            }
+            System.out.printf("%-18s %10.3f s %10.3f s %10.3f s  (%d keys scanned)\n",
+                    e.getKey(), randomPut, sortedPut, scan, found);
+        }
+    }
+
+    private static double seconds(long start) {
+        return (System.nanoTime() - start) / 1e9;
+    }
+}
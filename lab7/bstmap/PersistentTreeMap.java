@@ -0,0 +1,315 @@
+package bstmap;
+
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Ordered map implemented with a persistent AVL tree. Nodes never change
+ * once built: put() and remove() copy only the nodes on the path from the
+ * root to the key, O(log N) of them, rebalance the copies with rotations,
+ * and then swap in the new root. Every older root still describes the map
+ * as it was, sharing all its untouched subtrees with the newer versions.
+ *
+ * That makes snapshot() O(1): it returns a read-only map over the current
+ * root, which later updates can never change. Iterators and keySet() work
+ * the same way and see the map as it was when they were created.
+ *
+ * Updates are meant for one writer thread at a time; any number of other
+ * threads may read, iterate or take snapshots while it writes.
+ * @param <K> Key of map
+ * @param <V> Value paired with key
+ */
+public class PersistentTreeMap<K extends Comparable<K>, V> implements Map61B<K, V> {
+    private final boolean readOnly;
+    /** Root of the current version; its size field is the size of the map */
+    private volatile Node<K, V> root;
+
+    /** Immutable AVL node, shared by every version that contains it */
+    private static final class Node<K, V> {
+        final K key;
+        final V value;
+        final Node<K, V> left;
+        final Node<K, V> right;
+        final int height;  // leaves have height 1
+        final int size;    // number of nodes in this subtree
+
+        Node(K key, V value, Node<K, V> left, Node<K, V> right) {
+            this.key = key;
+            this.value = value;
+            this.left = left;
+            this.right = right;
+            this.height = 1 + Math.max(height(left), height(right));
+            this.size = 1 + size(left) + size(right);
+        }
+    }
+
+    public PersistentTreeMap() {
+        this(null, false);
+    }
+
+    private PersistentTreeMap(Node<K, V> root, boolean readOnly) {
+        this.root = root;
+        this.readOnly = readOnly;
+    }
+
+    /**
+     * Returns a read-only map of the current contents in O(1). It shares
+     * every node with this map and is not affected by later updates.
+     */
+    public PersistentTreeMap<K, V> snapshot() {
+        return readOnly ? this : new PersistentTreeMap<>(root, true);
+    }
+
+    /** Returns true if this map is a snapshot, whose put and remove throw */
+    public boolean isSnapshot() {
+        return readOnly;
+    }
+
+    /**
+     * Clear off all entries in this map; snapshots taken before keep theirs
+     */
+    @Override
+    public void clear() {
+        checkWritable();
+        root = null;
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        return key != null && findNode(root, key) != null;
+    }
+
+    @Override
+    public V get(K key) {
+        if (key == null) {
+            return null;
+        }
+        Node<K, V> node = findNode(root, key);
+        return node == null ? null : node.value;
+    }
+
+    private static <K extends Comparable<K>, V> Node<K, V> findNode(Node<K, V> x, K key) {
+        while (x != null) {
+            int cmp = key.compareTo(x.key);
+            if (cmp == 0) {
+                return x;
+            }
+            x = cmp < 0 ? x.left : x.right;
+        }
+        return null;
+    }
+
+    /**
+     * Get the number of entries in map
+     * @return the number of entries in map
+     */
+    @Override
+    public int size() {
+        return size(root);
+    }
+
+    /** Returns the number of links on the longest path from the root to a leaf, -1 if empty */
+    public int height() {
+        return height(root) - 1;
+    }
+
+    /**
+     * Insert a key-value pair into map, replacing the value if key is present
+     * @param key key in key-value pair
+     * @param value value in key-value pair
+     * @throws UnsupportedOperationException if this map is a snapshot
+     */
+    @Override
+    public void put(K key, V value) {
+        checkWritable();
+        if (key == null) {
+            return;
+        }
+        root = put(root, key, value);
+    }
+
+    /** Returns a copy of x with key put into it */
+    private Node<K, V> put(Node<K, V> x, K key, V value) {
+        if (x == null) {
+            return new Node<>(key, value, null, null);
+        }
+        int cmp = key.compareTo(x.key);
+        if (cmp == 0) {
+            return new Node<>(key, value, x.left, x.right);
+        }
+        if (cmp < 0) {
+            return balance(x.key, x.value, put(x.left, key, value), x.right);
+        }
+        return balance(x.key, x.value, x.left, put(x.right, key, value));
+    }
+
+    /**
+     * @throws UnsupportedOperationException if this map is a snapshot
+     */
+    @Override
+    public V remove(K key) {
+        checkWritable();
+        if (key == null) {
+            return null;
+        }
+        Node<K, V> node = findNode(root, key);
+        if (node == null) {
+            return null;
+        }
+        root = remove(root, key);
+        return node.value;
+    }
+
+    /**
+     * @throws UnsupportedOperationException if this map is a snapshot
+     */
+    @Override
+    public V remove(K key, V value) {
+        checkWritable();
+        V current = get(key);
+        if (current == null || !current.equals(value)) {
+            return null;
+        }
+        return remove(key);
+    }
+
+    /** Returns a copy of x without key, which must be in x */
+    private Node<K, V> remove(Node<K, V> x, K key) {
+        int cmp = key.compareTo(x.key);
+        if (cmp < 0) {
+            return balance(x.key, x.value, remove(x.left, key), x.right);
+        }
+        if (cmp > 0) {
+            return balance(x.key, x.value, x.left, remove(x.right, key));
+        }
+        if (x.left == null) {
+            return x.right;
+        }
+        if (x.right == null) {
+            return x.left;
+        }
+        // replace x by its successor
+        Node<K, V> min = x.right;
+        while (min.left != null) {
+            min = min.left;
+        }
+        return balance(min.key, min.value, x.left, removeMin(x.right));
+    }
+
+    private Node<K, V> removeMin(Node<K, V> x) {
+        if (x.left == null) {
+            return x.right;
+        }
+        return balance(x.key, x.value, removeMin(x.left), x.right);
+    }
+
+    private void checkWritable() {
+        if (readOnly) {
+            throw new UnsupportedOperationException("snapshots are read-only");
+        }
+    }
+
+    /* --------------------------- AVL helpers --------------------------- */
+
+    private static int height(Node<?, ?> x) {
+        return x == null ? 0 : x.height;
+    }
+
+    private static int size(Node<?, ?> x) {
+        return x == null ? 0 : x.size;
+    }
+
+    /**
+     * Returns a node for key and value over left and right, rotated once or
+     * twice if their heights differ by 2, as they may after one put or remove
+     */
+    private Node<K, V> balance(K key, V value, Node<K, V> left, Node<K, V> right) {
+        int lh = height(left);
+        int rh = height(right);
+        if (lh > rh + 1) {
+            if (height(left.left) >= height(left.right)) {
+                return new Node<>(left.key, left.value, left.left,
+                        new Node<>(key, value, left.right, right));
+            }
+            Node<K, V> lr = left.right;
+            return new Node<>(lr.key, lr.value,
+                    new Node<>(left.key, left.value, left.left, lr.left),
+                    new Node<>(key, value, lr.right, right));
+        }
+        if (rh > lh + 1) {
+            if (height(right.right) >= height(right.left)) {
+                return new Node<>(right.key, right.value,
+                        new Node<>(key, value, left, right.left), right.right);
+            }
+            Node<K, V> rl = right.left;
+            return new Node<>(rl.key, rl.value,
+                    new Node<>(key, value, left, rl.left),
+                    new Node<>(right.key, right.value, rl.right, right.right));
+        }
+        return new Node<>(key, value, left, right);
+    }
+
+    /* ----------------------------- Iteration ----------------------------- */
+
+    /** Returns a Set view of the keys of this version, in ascending order */
+    @Override
+    public Set<K> keySet() {
+        Node<K, V> version = root;
+        return new AbstractSet<K>() {
+            @Override
+            public Iterator<K> iterator() {
+                return new KeyIterator<>(version);
+            }
+
+            @Override
+            public int size() {
+                return PersistentTreeMap.size(version);
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public boolean contains(Object o) {
+                return o != null && findNode(version, (K) o) != null;
+            }
+        };
+    }
+
+    /** Iterates over the keys of this version in ascending order */
+    @Override
+    public Iterator<K> iterator() {
+        return new KeyIterator<>(root);
+    }
+
+    private static class KeyIterator<K, V> implements Iterator<K> {
+        private final Deque<Node<K, V>> stack = new ArrayDeque<>();
+
+        KeyIterator(Node<K, V> root) {
+            pushLeft(root);
+        }
+
+        private void pushLeft(Node<K, V> x) {
+            for (; x != null; x = x.left) {
+                stack.push(x);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !stack.isEmpty();
+        }
+
+        @Override
+        public K next() {
+            if (stack.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            Node<K, V> x = stack.pop();
+            pushLeft(x.right);
+            return x.key;
+        }
+    }
+}
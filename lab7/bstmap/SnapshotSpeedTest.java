@@ -0,0 +1,95 @@
+package bstmap;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.Scanner;
+
+/**
+ * Compares the cost of consistent snapshots of an ordered map: the O(1)
+ * snapshot() of PersistentTreeMap against copying a BSTMap, and the update
+ * throughput of both when readers ask for a snapshot every S updates.
+ */
+public class SnapshotSpeedTest {
+    /** Keeps the JIT from dropping snapshots nobody reads */
+    private static volatile Object sink;
+
+    /**
+     * Requests user input and times snapshots and updates. ARGS is unused.
+     */
+    public static void main(String[] args) throws IOException {
+        Scanner input = new Scanner(System.in);
+
+        System.out.println("This program fills maps with N random Integer keys, then times "
+                + "snapshots and N random puts and removes with a snapshot every S updates.");
+
+        String repeat = "y";
+        do {
+            System.out.print("\nEnter # keys N: ");
+            int N = InsertRandomSpeedTest.waitForPositiveInt(input);
+            System.out.print("Enter # updates S between snapshots: ");
+            int S = InsertRandomSpeedTest.waitForPositiveInt(input);
+            time(N, S);
+
+            System.out.print("\nWould you like to try more timed-tests? (y/n): ");
+            repeat = input.nextLine();
+        } while (!repeat.equalsIgnoreCase("n") && !repeat.equalsIgnoreCase("no"));
+        input.close();
+    }
+
+    /** Prints snapshot cost and update throughput for maps of N keys */
+    public static void time(int N, int S) {
+        int[] keys = new Random(61).ints(N, 0, 2 * N).toArray();
+        PersistentTreeMap<Integer, Integer> persistent = new PersistentTreeMap<>();
+        BSTMap<Integer, Integer> bst = new BSTMap<>();
+        for (int key : keys) {
+            persistent.put(key, key);
+            bst.put(key, key);
+        }
+
+        int rounds = 1000;
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            sink = persistent.snapshot();
+        }
+        double persistentSnapshot = (System.nanoTime() - start) / 1e3 / rounds;
+        start = System.nanoTime();
+        sink = copy(bst);
+        double bstSnapshot = (System.nanoTime() - start) / 1e3;
+        System.out.printf("snapshot: PersistentTreeMap %.3f us, BSTMap copy %.3f us\n",
+                persistentSnapshot, bstSnapshot);
+
+        System.out.printf("%d updates, snapshot every %d: PersistentTreeMap %.0f ops/sec, "
+                + "copy-on-snapshot BSTMap %.0f ops/sec\n", N, S,
+                updates(persistent, N, S), updates(bst, N, S));
+    }
+
+    /**
+     * Runs N random puts and removes on map, taking a snapshot every S of
+     * them, and returns updates per second
+     */
+    private static double updates(Map61B<Integer, Integer> map, int N, int S) {
+        Random r = new Random(62);
+        long start = System.nanoTime();
+        for (int i = 0; i < N; i++) {
+            int key = r.nextInt(2 * N);
+            if (r.nextBoolean()) {
+                map.put(key, i);
+            } else {
+                map.remove(key);
+            }
+            if (i % S == S - 1) {
+                if (map instanceof PersistentTreeMap) {
+                    sink = ((PersistentTreeMap<Integer, Integer>) map).snapshot();
+                } else {
+                    sink = copy((BSTMap<Integer, Integer>) map);
+                }
+            }
+        }
+        return N / ((System.nanoTime() - start) / 1e9);
+    }
+
+    /** Returns a copy of map in O(N): merging with an empty map rebuilds it */
+    private static BSTMap<Integer, Integer> copy(BSTMap<Integer, Integer> map) {
+        return BSTMap.merge(map, new BSTMap<>());
+    }
+}
@@ -0,0 +1,160 @@
+package bstmap;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+/** Tests of the B+-tree map, checked against TreeMap. */
+public class TestBPlusTreeMap {
+
+    @Test
+    public void sanityTest() {
+        BPlusTreeMap<String, Integer> b = new BPlusTreeMap<>();
+        assertFalse(b.containsKey("hi"));
+        assertNull(b.get("hi"));
+        assertFalse(b.iterator().hasNext());
+        for (int i = 0; i < 455; i++) {
+            b.put("hi" + i, i);
+        }
+        assertEquals(455, b.size());
+        b.put("hi0", 100);
+        assertEquals(455, b.size());
+        assertEquals(100, b.get("hi0").intValue());
+        assertEquals(455, b.keySet().size());
+        assertTrue(b.keySet().contains("hi454"));
+
+        assertEquals(100, b.remove("hi0").intValue());
+        assertNull(b.remove("hi0"));
+        assertNull(b.remove("hi1", 2));
+        assertEquals(1, b.remove("hi1", 1).intValue());
+        assertEquals(453, b.size());
+        b.clear();
+        assertEquals(0, b.size());
+        assertEquals(1, b.height());
+        assertFalse(b.iterator().hasNext());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fanoutTooSmallTest() {
+        new BPlusTreeMap<Integer, Integer>(2);
+    }
+
+    /** Sorted input fills every leaf but the last one half full, never deeper than that. */
+    @Test
+    public void sortedInputTest() {
+        int n = 100000;
+        for (int fanout : new int[] {3, 4, 64}) {
+            BPlusTreeMap<Integer, Integer> b = new BPlusTreeMap<>(fanout);
+            for (int i = 0; i < n; i++) {
+                b.put(i, i);
+            }
+            double levels = Math.log(n) / Math.log(Math.ceil(fanout / 2.0));
+            assertTrue(b.height() <= levels + 2);
+            int expected = 0;
+            for (int key : b) {
+                assertEquals(expected++, key);
+            }
+            assertEquals(n, expected);
+        }
+    }
+
+    @Test
+    public void randomOperationsTest() {
+        for (int fanout : new int[] {3, 4, 5, 16}) {
+            BPlusTreeMap<Integer, Integer> b = new BPlusTreeMap<>(fanout);
+            TreeMap<Integer, Integer> expected = new TreeMap<>();
+            Random r = new Random(fanout);
+            for (int i = 0; i < 30000; i++) {
+                int key = r.nextInt(2000);
+                if (r.nextInt(3) > 0) {
+                    b.put(key, i);
+                    expected.put(key, i);
+                } else {
+                    assertEquals(expected.remove(key), b.remove(key));
+                }
+            }
+            assertEquals(expected.size(), b.size());
+            List<Integer> keys = new ArrayList<>();
+            for (int key : b) {
+                keys.add(key);
+            }
+            assertEquals(new ArrayList<>(expected.keySet()), keys);
+            for (int key = -1; key <= 2000; key++) {
+                assertEquals(expected.get(key), b.get(key));
+            }
+            for (int i = 0; i < 200; i++) {
+                int lo = r.nextInt(2100) - 50;
+                int hi = lo + r.nextInt(300);
+                List<Integer> range = new ArrayList<>();
+                for (int key : b.keys(lo, hi)) {
+                    range.add(key);
+                }
+                assertEquals(new ArrayList<>(expected.subMap(lo, true, hi, true).keySet()),
+                        range);
+            }
+        }
+    }
+
+    /** Removing everything must leave no trace of the old leaves. */
+    @Test
+    public void removeAllTest() {
+        BPlusTreeMap<Integer, Integer> b = new BPlusTreeMap<>(4);
+        for (int i = 0; i < 1000; i++) {
+            b.put(i, i);
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, b.remove(i).intValue());
+        }
+        assertEquals(0, b.size());
+        assertFalse(b.iterator().hasNext());
+        assertFalse(b.keys(0, 1000).iterator().hasNext());
+        b.put(500, 1);
+        assertEquals(1, b.get(500).intValue());
+        for (int key : b) {
+            assertEquals(500, key);
+        }
+    }
+
+    /**
+     * Deletes unlink the leaves they empty, so the tree shrinks back and the
+     * ranges of the dropped leaves still take new keys in the right place.
+     */
+    @Test
+    public void deleteHeavyTest() {
+        BPlusTreeMap<Integer, Integer> b = new BPlusTreeMap<>(4);
+        for (int i = 0; i < 10000; i++) {
+            b.put(i, i);
+        }
+        assertTrue(b.height() > 5);
+        for (int i = 0; i < 10000; i++) {
+            if (i % 1000 != 0) {
+                b.remove(i);
+            }
+        }
+        List<Integer> keys = new ArrayList<>();
+        for (int key : b) {
+            keys.add(key);
+        }
+        assertEquals(List.of(0, 1000, 2000, 3000, 4000, 5000, 6000, 7000, 8000, 9000), keys);
+        for (int i = 500; i < 10000; i += 1000) {
+            b.put(i, i);
+        }
+        keys.clear();
+        for (int key : b.keys(1000, 3000)) {
+            keys.add(key);
+        }
+        assertEquals(List.of(1000, 1500, 2000, 2500, 3000), keys);
+        for (int i = 0; i < 10000; i += 500) {
+            if (i != 7000) {
+                assertEquals(i, b.remove(i).intValue());
+            }
+        }
+        assertEquals(1, b.size());
+        assertEquals(1, b.height());
+        assertEquals(7000, b.get(7000).intValue());
+    }
+}
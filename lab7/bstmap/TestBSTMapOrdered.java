@@ -0,0 +1,198 @@
+package bstmap;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+/** Tests of the ordered operations of BSTMap, checked against TreeMap. */
+public class TestBSTMapOrdered {
+
+    @Test
+    public void emptyTest() {
+        BSTMap<Integer, Integer> b = new BSTMap<>();
+        assertNull(b.min());
+        assertNull(b.max());
+        assertNull(b.floor(1));
+        assertNull(b.ceiling(1));
+        assertEquals(0, b.rank(1));
+        assertFalse(b.keys(0, 10).iterator().hasNext());
+        try {
+            b.select(0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // no key has rank 0
+        }
+    }
+
+    @Test
+    public void randomOperationsTest() {
+        BSTMap<Integer, Integer> b = new BSTMap<>();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        Random r = new Random(61);
+        for (int i = 0; i < 20000; i++) {
+            int key = r.nextInt(2000);
+            if (r.nextInt(3) > 0) {
+                b.put(key, i);
+                expected.put(key, i);
+            } else {
+                assertEquals(expected.remove(key), b.remove(key));
+            }
+        }
+        assertEquals(expected.size(), b.size());
+        assertEquals(expected.firstKey(), b.min());
+        assertEquals(expected.lastKey(), b.max());
+
+        List<Integer> sorted = new ArrayList<>(expected.keySet());
+        for (int i = 0; i < sorted.size(); i++) {
+            assertEquals(sorted.get(i), b.select(i));
+            assertEquals(i, b.rank(sorted.get(i)));
+        }
+        for (int key = -1; key <= 2000; key++) {
+            assertEquals(expected.floorKey(key), b.floor(key));
+            assertEquals(expected.ceilingKey(key), b.ceiling(key));
+            assertEquals(expected.headMap(key).size(), b.rank(key));
+        }
+        for (int i = 0; i < 200; i++) {
+            int lo = r.nextInt(2100) - 50;
+            int hi = lo + r.nextInt(300);
+            List<Integer> keys = new ArrayList<>();
+            for (int key : b.keys(lo, hi)) {
+                keys.add(key);
+            }
+            assertEquals(new ArrayList<>(expected.subMap(lo, true, hi, true).keySet()), keys);
+            assertEquals(keys.size(), b.size(lo, hi));
+        }
+        assertEquals(0, b.size(10, 5));
+        assertFalse(b.keys(10, 5).iterator().hasNext());
+
+        List<Integer> all = new ArrayList<>();
+        for (int key : b) {
+            all.add(key);
+        }
+        assertEquals(sorted, all);
+    }
+
+    @Test
+    public void keySetTest() {
+        BSTMap<String, Integer> b = new BSTMap<>();
+        for (int i = 0; i < 100; i++) {
+            b.put("hi" + i, i);
+        }
+        assertEquals(100, b.keySet().size());
+        assertTrue(b.keySet().contains("hi42"));
+        assertTrue(b.keySet().remove("hi42"));
+        assertFalse(b.keySet().remove("hi42"));
+        assertFalse(b.containsKey("hi42"));
+        assertEquals(99, b.size());
+        assertNull(b.remove("hi1", 2));
+        assertEquals(1, b.remove("hi1", 1).intValue());
+        assertEquals(98, b.size());
+    }
+
+    /** The range iterator must not walk the whole tree to find its first key. */
+    @Test
+    public void lazyRangeTest() {
+        BSTMap<Integer, Integer> b = new BSTMap<>();
+        Random r = new Random(7);
+        for (int i = 0; i < 100000; i++) {
+            b.put(r.nextInt(), i);
+        }
+        b.resetComparisonCount();
+        Iterator<Integer> it = b.keys(Integer.MIN_VALUE, Integer.MAX_VALUE).iterator();
+        for (int i = 0; i < 10; i++) {
+            it.next();
+        }
+        assertTrue(b.comparisonCount() < 1000);
+    }
+
+    @Test
+    public void fromSortedTest() {
+        int n = 100000;
+        Integer[] keys = new Integer[n];
+        String[] values = new String[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = 2 * i;
+            values[i] = "v" + i;
+        }
+        BSTMap<Integer, String> b = BSTMap.fromSorted(keys, values);
+        assertEquals(n, b.size());
+        assertEquals(16, b.height());  // floor(lg 100000)
+        for (int i = 0; i < n; i += 97) {
+            assertEquals("v" + i, b.get(2 * i));
+            assertEquals(i, b.rank(2 * i));
+            assertEquals(2 * i, b.select(i).intValue());
+        }
+        assertFalse(b.containsKey(1));
+        // the result is an ordinary BSTMap
+        b.put(1, "odd");
+        assertEquals(n + 1, b.size());
+        assertEquals(2, b.rank(2));
+        assertEquals("v0", b.remove(0));
+
+        assertEquals(-1, BSTMap.fromSorted(new Integer[0], new String[0]).height());
+        List<AbstractMap.SimpleEntry<String, Integer>> entries = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            entries.add(new AbstractMap.SimpleEntry<>("k" + i, i));
+        }
+        BSTMap<String, Integer> fromIterator = BSTMap.fromSorted(entries.iterator());
+        assertEquals(2, fromIterator.height());
+        assertEquals(3, fromIterator.get("k3").intValue());
+    }
+
+    @Test
+    public void fromSortedRejectsBadInputTest() {
+        Integer[][] bad = {{1, 3, 2}, {1, 1}, {1, null}};
+        for (Integer[] keys : bad) {
+            try {
+                BSTMap.fromSorted(keys, new Integer[keys.length]);
+                fail();
+            } catch (IllegalArgumentException e) {
+                // not strictly increasing
+            }
+        }
+        try {
+            BSTMap.fromSorted(new Integer[] {1, 2}, new Integer[1]);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // lengths differ
+        }
+    }
+
+    @Test
+    public void mergeTest() {
+        BSTMap<Integer, Integer> a = new BSTMap<>();
+        BSTMap<Integer, Integer> b = new BSTMap<>();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        Random r = new Random(22);
+        for (int i = 0; i < 5000; i++) {
+            int key = r.nextInt(10000);
+            a.put(key, i);
+            expected.put(key, i);
+        }
+        for (int i = 0; i < 5000; i++) {
+            int key = r.nextInt(10000);
+            b.put(key, -i);
+        }
+        for (int key : b) {
+            expected.put(key, b.get(key));
+        }
+        int aSize = a.size();
+        BSTMap<Integer, Integer> merged = BSTMap.merge(a, b);
+        assertEquals(aSize, a.size());
+        assertEquals(expected.size(), merged.size());
+        assertTrue(merged.height() <= Math.log(merged.size()) / Math.log(2));
+        List<Integer> keys = new ArrayList<>();
+        for (int key : merged) {
+            keys.add(key);
+            assertEquals(expected.get(key), merged.get(key));
+        }
+        assertEquals(new ArrayList<>(expected.keySet()), keys);
+        assertEquals(0, BSTMap.merge(new BSTMap<Integer, Integer>(), new BSTMap<>()).size());
+    }
+}
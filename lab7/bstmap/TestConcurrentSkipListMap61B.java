@@ -0,0 +1,193 @@
+package bstmap;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** Tests of the lock-free skip list map. */
+public class TestConcurrentSkipListMap61B {
+
+    @Test
+    public void sanityTest() {
+        ConcurrentSkipListMap61B<String, Integer> b = new ConcurrentSkipListMap61B<>();
+        assertFalse(b.containsKey("hi"));
+        assertNull(b.get("hi"));
+        for (int i = 0; i < 455; i++) {
+            b.put("hi" + i, i);
+        }
+        assertEquals(455, b.size());
+        b.put("hi0", 100);
+        assertEquals(455, b.size());
+        assertEquals(100, b.get("hi0").intValue());
+        assertNull(b.remove("hi1", 2));
+        assertEquals(1, b.remove("hi1", 1).intValue());
+        assertEquals(2, b.remove("hi2").intValue());
+        assertNull(b.remove("hi2"));
+        b.put("hi3", null);
+        assertFalse(b.containsKey("hi3"));
+        assertEquals(452, b.size());
+        assertEquals(452, b.keySet().size());
+        assertTrue(b.keySet().contains("hi454"));
+
+        Iterator<String> iter = b.iterator();
+        while (iter.hasNext()) {
+            iter.next();
+            iter.remove();
+        }
+        assertEquals(0, b.size());
+        b.put("hi", 1);
+        b.clear();
+        assertFalse(b.containsKey("hi"));
+        assertFalse(b.iterator().hasNext());
+    }
+
+    @Test
+    public void randomOperationsTest() {
+        ConcurrentSkipListMap61B<Integer, Integer> b = new ConcurrentSkipListMap61B<>();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        Random r = new Random(61);
+        for (int i = 0; i < 50000; i++) {
+            int key = r.nextInt(1000);
+            if (r.nextInt(3) > 0) {
+                b.put(key, i);
+                expected.put(key, i);
+            } else {
+                assertEquals(expected.remove(key), b.remove(key));
+            }
+        }
+        assertEquals(expected.size(), b.size());
+        List<Integer> keys = new ArrayList<>();
+        for (int key : b) {
+            keys.add(key);
+        }
+        assertEquals(new ArrayList<>(expected.keySet()), keys);
+        for (int i = 0; i < 100; i++) {
+            int lo = r.nextInt(1100) - 50;
+            int hi = lo + r.nextInt(200);
+            List<Integer> range = new ArrayList<>();
+            for (int key : b.keys(lo, hi)) {
+                range.add(key);
+            }
+            assertEquals(new ArrayList<>(expected.subMap(lo, true, hi, true).keySet()), range);
+        }
+    }
+
+    /** Threads writing and removing disjoint keys must not lose any update. */
+    @Test
+    public void concurrentPutRemoveTest() throws InterruptedException {
+        ConcurrentSkipListMap61B<Integer, Integer> b = new ConcurrentSkipListMap61B<>();
+        int threads = 8;
+        int perThread = 20000;
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int base = t;
+            workers[t] = new Thread(() -> {
+                // interleave the threads' keys so that they fight over the same links
+                for (int i = base; i < threads * perThread; i += threads) {
+                    b.put(i, i);
+                }
+                for (int i = base; i < threads * perThread; i += 2 * threads) {
+                    b.remove(i);
+                }
+            });
+            workers[t].start();
+        }
+        // keep iterating while the map changes, keys must always come out sorted
+        while (workers[0].isAlive()) {
+            int last = -1;
+            for (int key : b) {
+                assertTrue(key > last);
+                last = key;
+            }
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        assertEquals(threads * perThread / 2, b.size());
+        int count = 0;
+        for (int key : b) {
+            assertEquals(1, (key / threads) % 2);
+            count++;
+        }
+        assertEquals(threads * perThread / 2, count);
+        for (int i = 0; i < threads * perThread; i++) {
+            assertEquals((i / threads) % 2 == 1, b.containsKey(i));
+        }
+    }
+
+    /** When threads race to remove the same keys, each key is removed exactly once. */
+    @Test
+    public void concurrentRemoveSameKeysTest() throws InterruptedException {
+        ConcurrentSkipListMap61B<Integer, Integer> b = new ConcurrentSkipListMap61B<>();
+        int n = 50000;
+        for (int i = 0; i < n; i++) {
+            b.put(i, i);
+        }
+        AtomicInteger removed = new AtomicInteger();
+        Thread[] workers = new Thread[8];
+        for (int t = 0; t < workers.length; t++) {
+            workers[t] = new Thread(() -> {
+                for (int i = 0; i < n; i++) {
+                    if (b.remove(i) != null) {
+                        removed.incrementAndGet();
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        assertEquals(n, removed.get());
+        assertEquals(0, b.size());
+        assertFalse(b.iterator().hasNext());
+    }
+
+    /**
+     * A put racing with the remove of the same key happens either before it,
+     * and the remove returns the new value, or after it, and the key stays.
+     * It must never be lost to a node that is already being removed.
+     */
+    @Test
+    public void concurrentPutRemoveSameKeysTest() throws InterruptedException {
+        int n = 20000;
+        for (int round = 0; round < 50; round++) {
+            ConcurrentSkipListMap61B<Integer, Integer> b = new ConcurrentSkipListMap61B<>();
+            for (int i = 0; i < n; i++) {
+                b.put(i, 0);
+            }
+            Integer[] removed = new Integer[n];
+            Thread putter = new Thread(() -> {
+                for (int i = 0; i < n; i++) {
+                    b.put(i, 1);
+                }
+            });
+            Thread remover = new Thread(() -> {
+                for (int i = 0; i < n; i++) {
+                    removed[i] = b.remove(i);
+                }
+            });
+            putter.start();
+            remover.start();
+            putter.join();
+            remover.join();
+            int present = 0;
+            for (int i = 0; i < n; i++) {
+                assertNotNull(removed[i]);
+                if (removed[i] == 0) {
+                    assertEquals(1, b.get(i).intValue());
+                    present++;
+                } else {
+                    assertFalse(b.containsKey(i));
+                }
+            }
+            assertEquals(present, b.size());
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package bstmap;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+/** Tests of frozen, Eytzinger-ordered copies of BSTMap. */
+public class TestFrozenBSTMap {
+
+    /** Every size from 0 to 70 fills the last level differently. */
+    @Test
+    public void allSmallSizesTest() {
+        for (int n = 0; n <= 70; n++) {
+            BSTMap<Integer, Integer> b = new BSTMap<>();
+            for (int i = 0; i < n; i++) {
+                b.put((i * 37) % n * 2, i);
+            }
+            FrozenBSTMap<Integer, Integer> f = b.freeze();
+            assertEquals(b.size(), f.size());
+            List<Integer> keys = new ArrayList<>();
+            for (int key : f) {
+                keys.add(key);
+            }
+            List<Integer> expected = new ArrayList<>();
+            for (int key : b) {
+                expected.add(key);
+            }
+            assertEquals(expected, keys);
+            for (int key = -1; key <= 2 * n; key++) {
+                assertEquals(b.get(key), f.get(key));
+                assertEquals(b.containsKey(key), f.containsKey(key));
+                assertEquals(b.ceiling(key), f.ceiling(key));
+            }
+        }
+    }
+
+    @Test
+    public void randomKeysTest() {
+        BSTMap<String, Integer> b = new BSTMap<>();
+        TreeMap<String, Integer> expected = new TreeMap<>();
+        Random r = new Random(24);
+        for (int i = 0; i < 20000; i++) {
+            String key = "k" + r.nextInt(100000);
+            b.put(key, i);
+            expected.put(key, i);
+        }
+        FrozenBSTMap<String, Integer> f = b.freeze();
+        // the original stays writable and the frozen copy does not follow it
+        b.put("new", 1);
+        assertFalse(f.containsKey("new"));
+        assertEquals(expected.size(), f.size());
+        assertEquals(expected.keySet(), f.keySet());
+        for (int i = 0; i < 100000; i += 7) {
+            assertEquals(expected.get("k" + i), f.get("k" + i));
+        }
+        assertNull(f.get(null));
+    }
+
+    @Test
+    public void readOnlyTest() {
+        BSTMap<String, Integer> b = new BSTMap<>();
+        b.put("hi", 1);
+        FrozenBSTMap<String, Integer> f = b.freeze();
+        try {
+            f.put("hello", 2);
+            fail();
+        } catch (UnsupportedOperationException e) {
+            // frozen maps are read-only
+        }
+        try {
+            f.remove("hi");
+            fail();
+        } catch (UnsupportedOperationException e) {
+            // frozen maps are read-only
+        }
+        assertEquals(1, f.get("hi").intValue());
+    }
+
+    /** Long keys take the long[] path, including keys beyond the range of int. */
+    @Test
+    public void longKeysTest() {
+        BSTMap<Long, Integer> b = new BSTMap<>();
+        Random r = new Random(25);
+        for (int i = 0; i < 1000; i++) {
+            b.put(r.nextLong(), i);
+        }
+        b.put(Long.MIN_VALUE, -1);
+        b.put(Long.MAX_VALUE, -2);
+        FrozenBSTMap<Long, Integer> f = b.freeze();
+        for (long key : b) {
+            assertEquals(b.get(key), f.get(key));
+            assertEquals(b.ceiling(key + 1), f.ceiling(key + 1));
+        }
+        assertEquals(-1, f.get(Long.MIN_VALUE).intValue());
+        assertEquals(-2, f.get(Long.MAX_VALUE).intValue());
+        assertFalse(f.containsKey(0L));
+    }
+}
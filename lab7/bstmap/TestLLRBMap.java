@@ -0,0 +1,84 @@
+package bstmap;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+/** Tests of the left-leaning red-black tree map. */
+public class TestLLRBMap {
+
+    @Test
+    public void sanityTest() {
+        LLRBMap<String, Integer> b = new LLRBMap<>();
+        assertFalse(b.containsKey("hi"));
+        assertNull(b.get("hi"));
+        for (int i = 0; i < 455; i++) {
+            b.put("hi" + i, i);
+        }
+        assertEquals(455, b.size());
+        b.put("hi0", 100);
+        assertEquals(455, b.size());
+        assertEquals(100, b.get("hi0").intValue());
+        assertEquals(455, b.keySet().size());
+        assertTrue(b.keySet().contains("hi454"));
+
+        assertEquals(100, b.remove("hi0").intValue());
+        assertNull(b.remove("hi0"));
+        assertNull(b.remove("hi1", 2));
+        assertEquals(1, b.remove("hi1", 1).intValue());
+        assertEquals(453, b.size());
+        b.clear();
+        assertEquals(0, b.size());
+        assertFalse(b.iterator().hasNext());
+    }
+
+    /** Sorted input must not make the tree any deeper than 2 lg N. */
+    @Test
+    public void sortedInputTest() {
+        LLRBMap<Integer, Integer> b = new LLRBMap<>();
+        int n = 100000;
+        for (int i = 0; i < n; i++) {
+            b.put(i, i);
+        }
+        assertTrue(b.height() <= 2 * (Math.log(n) / Math.log(2)));
+        for (int i = 0; i < n; i += 2) {
+            assertEquals(i, b.remove(i).intValue());
+        }
+        assertEquals(n / 2, b.size());
+        assertTrue(b.height() <= 2 * (Math.log(n / 2) / Math.log(2)));
+        int expected = 1;
+        for (int key : b) {
+            assertEquals(expected, key);
+            expected += 2;
+        }
+    }
+
+    @Test
+    public void randomOperationsTest() {
+        LLRBMap<Integer, Integer> b = new LLRBMap<>();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        Random r = new Random(61);
+        for (int i = 0; i < 50000; i++) {
+            int key = r.nextInt(1000);
+            if (r.nextInt(3) > 0) {
+                b.put(key, i);
+                expected.put(key, i);
+            } else {
+                assertEquals(expected.remove(key), b.remove(key));
+            }
+        }
+        assertEquals(expected.size(), b.size());
+        List<Integer> keys = new ArrayList<>();
+        for (int key : b) {
+            keys.add(key);
+        }
+        assertEquals(new ArrayList<>(expected.keySet()), keys);
+        for (int key = 0; key < 1000; key++) {
+            assertEquals(expected.get(key), b.get(key));
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package bstmap;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+/** Tests of the persistent AVL tree map and its snapshots. */
+public class TestPersistentTreeMap {
+
+    @Test
+    public void sanityTest() {
+        PersistentTreeMap<String, Integer> b = new PersistentTreeMap<>();
+        assertFalse(b.containsKey("hi"));
+        assertNull(b.get("hi"));
+        for (int i = 0; i < 455; i++) {
+            b.put("hi" + i, i);
+        }
+        assertEquals(455, b.size());
+        b.put("hi0", 100);
+        assertEquals(455, b.size());
+        assertEquals(100, b.get("hi0").intValue());
+        assertEquals(455, b.keySet().size());
+        assertTrue(b.keySet().contains("hi454"));
+
+        assertEquals(100, b.remove("hi0").intValue());
+        assertNull(b.remove("hi0"));
+        assertNull(b.remove("hi1", 2));
+        assertEquals(1, b.remove("hi1", 1).intValue());
+        assertEquals(453, b.size());
+        b.clear();
+        assertEquals(0, b.size());
+        assertEquals(-1, b.height());
+        assertFalse(b.iterator().hasNext());
+    }
+
+    /** Sorted input must keep the tree within the AVL bound of 1.44 lg N. */
+    @Test
+    public void sortedInputTest() {
+        PersistentTreeMap<Integer, Integer> b = new PersistentTreeMap<>();
+        int n = 100000;
+        for (int i = 0; i < n; i++) {
+            b.put(i, i);
+        }
+        assertTrue(b.height() <= 1.44 * Math.log(n) / Math.log(2));
+        for (int i = 0; i < n; i += 2) {
+            assertEquals(i, b.remove(i).intValue());
+        }
+        assertEquals(n / 2, b.size());
+        assertTrue(b.height() <= 1.44 * Math.log(n / 2) / Math.log(2));
+    }
+
+    @Test
+    public void randomOperationsTest() {
+        PersistentTreeMap<Integer, Integer> b = new PersistentTreeMap<>();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        Random r = new Random(23);
+        for (int i = 0; i < 50000; i++) {
+            int key = r.nextInt(1000);
+            if (r.nextInt(3) > 0) {
+                b.put(key, i);
+                expected.put(key, i);
+            } else {
+                assertEquals(expected.remove(key), b.remove(key));
+            }
+        }
+        assertEquals(expected.size(), b.size());
+        List<Integer> keys = new ArrayList<>();
+        for (int key : b) {
+            keys.add(key);
+        }
+        assertEquals(new ArrayList<>(expected.keySet()), keys);
+        for (int key = 0; key < 1000; key++) {
+            assertEquals(expected.get(key), b.get(key));
+        }
+    }
+
+    /** Every snapshot must keep showing the map exactly as it was when taken. */
+    @Test
+    public void snapshotTest() {
+        PersistentTreeMap<Integer, Integer> b = new PersistentTreeMap<>();
+        List<PersistentTreeMap<Integer, Integer>> snapshots = new ArrayList<>();
+        List<TreeMap<Integer, Integer>> copies = new ArrayList<>();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        Random r = new Random(61);
+        for (int i = 0; i < 5000; i++) {
+            int key = r.nextInt(300);
+            if (r.nextInt(3) > 0) {
+                b.put(key, i);
+                expected.put(key, i);
+            } else {
+                b.remove(key);
+                expected.remove(key);
+            }
+            if (i % 500 == 0) {
+                snapshots.add(b.snapshot());
+                copies.add(new TreeMap<>(expected));
+            }
+        }
+        b.clear();
+        for (int s = 0; s < snapshots.size(); s++) {
+            PersistentTreeMap<Integer, Integer> snapshot = snapshots.get(s);
+            TreeMap<Integer, Integer> copy = copies.get(s);
+            assertTrue(snapshot.isSnapshot());
+            assertEquals(copy.size(), snapshot.size());
+            List<Integer> keys = new ArrayList<>();
+            for (int key : snapshot) {
+                keys.add(key);
+                assertEquals(copy.get(key), snapshot.get(key));
+            }
+            assertEquals(new ArrayList<>(copy.keySet()), keys);
+        }
+        try {
+            snapshots.get(0).put(1, 1);
+            fail();
+        } catch (UnsupportedOperationException e) {
+            // snapshots are read-only
+        }
+    }
+
+    /** An iterator keeps walking the version it started on. */
+    @Test
+    public void iteratorSeesOneVersionTest() {
+        PersistentTreeMap<Integer, Integer> b = new PersistentTreeMap<>();
+        for (int i = 0; i < 100; i++) {
+            b.put(i, i);
+        }
+        int count = 0;
+        for (int key : b) {
+            b.remove(key);
+            b.put(key + 1000, key);
+            count++;
+        }
+        assertEquals(100, count);
+        assertEquals(100, b.size());
+        assertFalse(b.containsKey(0));
+    }
+}
@@ -0,0 +1,28 @@
+package bstmap;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/** Tests of the linked list map the speed tests compare against. */
+public class TestULLMap {
+
+    /** size() must count every new key, and lookups must reach past the head of the list. */
+    @Test
+    public void sizeTest() {
+        ULLMap<String, Integer> b = new ULLMap<>();
+        assertEquals(0, b.size());
+        for (int i = 0; i < 100; i++) {
+            b.put("hi" + i, i);
+            assertEquals(i + 1, b.size());
+        }
+        // hi0 is at the far end of the list
+        b.put("hi0", -1);
+        assertEquals(100, b.size());
+        assertEquals(-1, b.get("hi0").intValue());
+        assertEquals(50, b.get("hi50").intValue());
+        assertTrue(b.containsKey("hi1"));
+        assertFalse(b.containsKey("hi100"));
+        b.clear();
+        assertEquals(0, b.size());
+    }
+}
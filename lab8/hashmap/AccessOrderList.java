@@ -0,0 +1,97 @@
+package hashmap;
+
+/**
+ * A list of distinct keys from most to least recently used. Keys are
+ * found through a MyHashMap index, so every operation takes O(1).
+ * @param <K> type of the keys
+ */
+class AccessOrderList<K> {
+
+    /** Doubly linked list node holding one key */
+    private class Link {
+        K key;
+        Link prev;
+        Link next;
+
+        Link(K key) {
+            this.key = key;
+        }
+    }
+
+    private final MyHashMap<K, Link> index = new MyHashMap<>();
+    private final Link sentinel;  // sentinel.next is the most recent key
+
+    AccessOrderList() {
+        sentinel = new Link(null);
+        sentinel.prev = sentinel;
+        sentinel.next = sentinel;
+    }
+
+    int size() {
+        return index.size();
+    }
+
+    boolean contains(K key) {
+        return index.containsKey(key);
+    }
+
+    /** Adds key, which must not be in the list, as the most recent key */
+    void addFirst(K key) {
+        Link link = new Link(key);
+        index.put(key, link);
+        linkFirst(link);
+    }
+
+    /** Makes key the most recent key, returns false if key is not in the list */
+    boolean moveToFront(K key) {
+        Link link = index.get(key);
+        if (link == null) {
+            return false;
+        }
+        unlink(link);
+        linkFirst(link);
+        return true;
+    }
+
+    /** Removes key, returns false if key is not in the list */
+    boolean remove(K key) {
+        Link link = index.remove(key);
+        if (link == null) {
+            return false;
+        }
+        unlink(link);
+        return true;
+    }
+
+    /** Returns the least recent key, or null if the list is empty */
+    K peekLast() {
+        return sentinel.prev.key;
+    }
+
+    /** Removes and returns the least recent key, or null if the list is empty */
+    K removeLast() {
+        K key = sentinel.prev.key;
+        if (key != null) {
+            remove(key);
+        }
+        return key;
+    }
+
+    void clear() {
+        index.clear();
+        sentinel.prev = sentinel;
+        sentinel.next = sentinel;
+    }
+
+    private void linkFirst(Link link) {
+        link.prev = sentinel;
+        link.next = sentinel.next;
+        sentinel.next.prev = link;
+        sentinel.next = link;
+    }
+
+    private void unlink(Link link) {
+        link.prev.next = link.next;
+        link.next.prev = link.prev;
+    }
+}
@@ -0,0 +1,159 @@
+package hashmap;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+/**
+ *  A map that holds at most capacity entries. Entries are stored in a
+ *  MyHashMap, and once the map is full an EvictionPolicy (LRU, LFU or
+ *  W-TinyLFU) picks the entry to drop. Counts hits and misses of get(),
+ *  and evictions.
+ *  Only get() and put() count as uses of a key; containsKey(), keySet()
+ *  and iterator() look at the cache without changing it, so keySet() and
+ *  iterator() do not support removal.
+ *  Assumes null keys will never be inserted.
+ */
+public class BoundedCache<K, V> implements Map61B<K, V> {
+
+    private final int capacity;
+    private final MyHashMap<K, V> entries;
+    private final EvictionPolicy<K> policy;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /** Creates an LRU cache holding at most capacity entries */
+    public BoundedCache(int capacity) {
+        this(capacity, LruPolicy::new);
+    }
+
+    /**
+     * Creates a cache holding at most capacity entries
+     * @param capacity maximum number of entries
+     * @param policyFactory creates the eviction policy for a given capacity,
+     *                      such as LfuPolicy::new
+     */
+    public BoundedCache(int capacity, IntFunction<EvictionPolicy<K>> policyFactory) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.policy = policyFactory.apply(capacity);
+        // size the table once so that a full cache never resizes
+        entries = new MyHashMap<>(capacity * 4 / 3 + 1);
+    }
+
+    @Override
+    public void clear() {
+        entries.clear();
+        policy.clear();
+    }
+
+    /** Returns true if key is cached, without counting it as a use */
+    @Override
+    public boolean containsKey(K key) {
+        return entries.containsKey(key);
+    }
+
+    @Override
+    public V get(K key) {
+        V value = entries.get(key);
+        if (value == null && !entries.containsKey(key)) {
+            misses++;
+            policy.recordMiss(key);
+            return null;
+        }
+        hits++;
+        policy.recordAccess(key);
+        return value;
+    }
+
+    @Override
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Caches value under key. If key is new and the cache is full, the
+     * policy evicts one entry, which may be the new one.
+     * @throws IllegalStateException if the policy lets the cache grow past
+     *         capacity; the new entry is not kept
+     */
+    @Override
+    public void put(K key, V value) {
+        if (entries.containsKey(key)) {
+            entries.put(key, value);
+            policy.recordAccess(key);
+            return;
+        }
+        entries.put(key, value);
+        K victim = policy.recordInsertion(key);
+        if (victim != null) {
+            entries.remove(victim);
+            evictions++;
+        } else if (entries.size() > capacity) {
+            entries.remove(key);
+            policy.recordRemoval(key);
+            throw new IllegalStateException("eviction policy kept more than "
+                    + capacity + " entries");
+        }
+    }
+
+    /** Returns a read-only Set view of the cached keys. */
+    @Override
+    public Set<K> keySet() {
+        return Collections.unmodifiableSet(entries.keySet());
+    }
+
+    @Override
+    public V remove(K key) {
+        if (!entries.containsKey(key)) {
+            return null;
+        }
+        policy.recordRemoval(key);
+        return entries.remove(key);
+    }
+
+    @Override
+    public V remove(K key, V value) {
+        V current = entries.get(key);
+        if (current == null || !current.equals(value)) {
+            return null;
+        }
+        policy.recordRemoval(key);
+        return entries.remove(key);
+    }
+
+    @Override
+    public Iterator<K> iterator() {
+        return keySet().iterator();
+    }
+
+    /** Returns the maximum number of entries */
+    public int capacity() {
+        return capacity;
+    }
+
+    /** Returns the number of get() calls that found their key */
+    public long hitCount() {
+        return hits;
+    }
+
+    /** Returns the number of get() calls that did not find their key */
+    public long missCount() {
+        return misses;
+    }
+
+    /** Returns the number of entries dropped to stay within capacity */
+    public long evictionCount() {
+        return evictions;
+    }
+
+    /** Returns hits / (hits + misses), or 0 before the first get() */
+    public double hitRatio() {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+}
@@ -0,0 +1,348 @@
+package hashmap;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ *  A thread-safe hash table-backed Map implementation. The table is split
+ *  into segments, each a small hash table of chained nodes guarded by its
+ *  own lock, so writers to different segments never wait for each other.
+ *  Reads take no lock at all: a chain is never changed in place after it
+ *  is published, so get() always sees a consistent chain, old or new.
+ *  Each segment resizes on its own while holding only its own lock, so a
+ *  resize never stops the whole map.
+ *  Iterators and keySet() are weakly consistent: they never throw
+ *  ConcurrentModificationException and reflect some of the changes made
+ *  after they were created.
+ *  Assumes null keys will never be inserted.
+ */
+public class ConcurrentMyHashMap<K, V> implements Map61B<K, V> {
+
+    private static final int DEFAULT_CONCURRENCY = 16;
+
+    /**
+     * Chain node. Only value may change after a node is published;
+     * remove() copies the nodes in front of a removed node instead of
+     * relinking, so readers walking an old chain are never cut short.
+     */
+    private static class Node<K, V> {
+        final int hash;
+        final K key;
+        volatile V value;
+        final Node<K, V> next;
+
+        Node(int hash, K key, V value, Node<K, V> next) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+            this.next = next;
+        }
+    }
+
+    /** A lock-guarded hash table holding the keys of one segment */
+    private static class Segment<K, V> {
+        final ReentrantLock lock = new ReentrantLock();
+        volatile AtomicReferenceArray<Node<K, V>> table;
+        volatile int count;  // number of nodes in this segment
+        final double loadFactor;
+
+        Segment(int tableSize, double loadFactor) {
+            this.table = new AtomicReferenceArray<>(tableSize);
+            this.loadFactor = loadFactor;
+        }
+
+        /** Returns the node holding key, or null. Takes no lock. */
+        Node<K, V> find(K key, int hash) {
+            AtomicReferenceArray<Node<K, V>> tab = table;
+            Node<K, V> e = tab.get(hash & (tab.length() - 1));
+            for (; e != null; e = e.next) {
+                if (e.hash == hash && key.equals(e.key)) {
+                    return e;
+                }
+            }
+            return null;
+        }
+
+        /** Maps key to value, returns true if key was not in the segment */
+        boolean put(K key, int hash, V value) {
+            lock.lock();
+            try {
+                Node<K, V> e = find(key, hash);
+                if (e != null) {
+                    e.value = value;
+                    return false;
+                }
+                if (count + 1 > table.length() * loadFactor) {
+                    rehash();
+                }
+                AtomicReferenceArray<Node<K, V>> tab = table;
+                int order = hash & (tab.length() - 1);
+                tab.set(order, new Node<>(hash, key, value, tab.get(order)));
+                count++;
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Removes key if it is mapped to value, or to anything when value
+         * is null. Returns the removed value, or null.
+         */
+        V remove(K key, int hash, V value) {
+            lock.lock();
+            try {
+                AtomicReferenceArray<Node<K, V>> tab = table;
+                int order = hash & (tab.length() - 1);
+                Node<K, V> first = tab.get(order);
+                Node<K, V> e = first;
+                while (e != null && !(e.hash == hash && key.equals(e.key))) {
+                    e = e.next;
+                }
+                if (e == null || (value != null && !value.equals(e.value))) {
+                    return null;
+                }
+                // nodes after e are kept, nodes in front of e are copied
+                Node<K, V> newFirst = e.next;
+                for (Node<K, V> p = first; p != e; p = p.next) {
+                    newFirst = new Node<>(p.hash, p.key, p.value, newFirst);
+                }
+                tab.set(order, newFirst);
+                count--;
+                return e.value;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /** Doubles the table. Must hold the lock. */
+        private void rehash() {
+            AtomicReferenceArray<Node<K, V>> oldTab = table;
+            AtomicReferenceArray<Node<K, V>> newTab = new AtomicReferenceArray<>(oldTab.length() * 2);
+            int mask = newTab.length() - 1;
+            for (int i = 0; i < oldTab.length(); i++) {
+                // copy nodes, the old chains stay intact for readers
+                for (Node<K, V> e = oldTab.get(i); e != null; e = e.next) {
+                    int order = e.hash & mask;
+                    newTab.set(order, new Node<>(e.hash, e.key, e.value, newTab.get(order)));
+                }
+            }
+            table = newTab;
+        }
+
+        void clear(int tableSize) {
+            lock.lock();
+            try {
+                table = new AtomicReferenceArray<>(tableSize);
+                count = 0;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /* Instance Variables */
+    private final Segment<K, V>[] segments;
+    private final int segmentShift;  // high hash bits pick the segment
+    private final int segmentTableSize;  // initial table size of each segment
+
+    /** Constructors */
+    public ConcurrentMyHashMap() {
+        this(16);
+    }
+
+    public ConcurrentMyHashMap(int initialSize) {
+        this(initialSize, 0.75);
+    }
+
+    public ConcurrentMyHashMap(int initialSize, double maxLoad) {
+        this(initialSize, maxLoad, DEFAULT_CONCURRENCY);
+    }
+
+    /**
+     * ConcurrentMyHashMap constructor that splits the table into about
+     * concurrencyLevel segments, the number of writers expected to run
+     * at the same time.
+     *
+     * @param initialSize initial total size of the backing tables
+     * @param maxLoad maximum load factor of each segment
+     * @param concurrencyLevel number of segments, rounded up to a power of two
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public ConcurrentMyHashMap(int initialSize, double maxLoad, int concurrencyLevel) {
+        int segmentCount = powerOfTwoAtLeast(Math.max(1, concurrencyLevel));
+        segmentShift = 32 - Integer.numberOfTrailingZeros(segmentCount);
+        segmentTableSize = powerOfTwoAtLeast(Math.max(2, initialSize / segmentCount));
+        segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment<>(segmentTableSize, maxLoad);
+        }
+    }
+
+    private static int powerOfTwoAtLeast(int n) {
+        int p = 1;
+        while (p < n) {
+            p <<= 1;
+        }
+        return p;
+    }
+
+    /** Mixes hashCode() so both its high bits and low bits are well spread. */
+    private static int hash(Object key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private Segment<K, V> segmentFor(int hash) {
+        // a single segment would shift by 32, which Java treats as 0
+        return segments.length == 1 ? segments[0] : segments[hash >>> segmentShift];
+    }
+
+    /** Remove all mappings, one segment at a time */
+    @Override
+    public void clear() {
+        for (Segment<K, V> segment : segments) {
+            segment.clear(segmentTableSize);
+        }
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        int hash = hash(key);
+        return segmentFor(hash).find(key, hash) != null;
+    }
+
+    @Override
+    public V get(K key) {
+        int hash = hash(key);
+        Node<K, V> node = segmentFor(hash).find(key, hash);
+        return node == null ? null : node.value;
+    }
+
+    /**
+     * @return the number of keys in map, which may be stale
+     * while other threads are writing
+     */
+    @Override
+    public int size() {
+        long sum = 0;
+        for (Segment<K, V> segment : segments) {
+            sum += segment.count;
+        }
+        return (int) Math.min(sum, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public void put(K key, V value) {
+        int hash = hash(key);
+        segmentFor(hash).put(key, hash, value);
+    }
+
+    @Override
+    public V remove(K key) {
+        int hash = hash(key);
+        return segmentFor(hash).remove(key, hash, null);
+    }
+
+    @Override
+    public V remove(K key, V value) {
+        int hash = hash(key);
+        return segmentFor(hash).remove(key, hash, value);
+    }
+
+    /** Returns a weakly consistent Set view of the keys contained in this map. */
+    @Override
+    public Set<K> keySet() {
+        return new AbstractSet<K>() {
+            @Override
+            public Iterator<K> iterator() {
+                return ConcurrentMyHashMap.this.iterator();
+            }
+
+            @Override
+            public int size() {
+                return ConcurrentMyHashMap.this.size();
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public boolean contains(Object o) {
+                return o != null && containsKey((K) o);
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public boolean remove(Object o) {
+                return o != null && ConcurrentMyHashMap.this.remove((K) o) != null;
+            }
+        };
+    }
+
+    @Override
+    public Iterator<K> iterator() {
+        return new KeyIterator();
+    }
+
+    /**
+     * Walks each segment's table as it was when the iterator reached that
+     * segment, so it never fails under concurrent updates
+     */
+    private class KeyIterator implements Iterator<K> {
+        private int nextSegment = 0;
+        private AtomicReferenceArray<Node<K, V>> table;
+        private int nextOrder;
+        private Node<K, V> next;
+        private K lastReturned;
+
+        KeyIterator() {
+            advance();
+        }
+
+        /** Points next to the following node, or null at the end */
+        private void advance() {
+            if (next != null) {
+                next = next.next;
+            }
+            while (next == null) {
+                if (table != null && nextOrder < table.length()) {
+                    next = table.get(nextOrder);
+                    nextOrder++;
+                } else if (nextSegment < segments.length) {
+                    table = segments[nextSegment].table;
+                    nextSegment++;
+                    nextOrder = 0;
+                } else {
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public K next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            lastReturned = next.key;
+            advance();
+            return lastReturned;
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned == null) {
+                throw new IllegalStateException();
+            }
+            ConcurrentMyHashMap.this.remove(lastReturned);
+            lastReturned = null;
+        }
+    }
+}
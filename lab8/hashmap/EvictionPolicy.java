@@ -0,0 +1,30 @@
+package hashmap;
+
+/**
+ * Decides which key a BoundedCache evicts once it is full. A policy is
+ * created with the capacity of its cache and is told about every access,
+ * insertion and removal, so it can keep its own bookkeeping in O(1).
+ * @param <K> key of the cache
+ */
+public interface EvictionPolicy<K> {
+
+    /** Records a hit on key, which is in the cache. */
+    void recordAccess(K key);
+
+    /** Records a lookup of key, which is not in the cache. */
+    default void recordMiss(K key) {
+    }
+
+    /**
+     * Records that key was added to the cache, and returns the key that
+     * must now be evicted, or null if the cache is not over capacity.
+     * The returned key may be key itself if the policy rejects it.
+     */
+    K recordInsertion(K key);
+
+    /** Records that key was removed from the cache by the caller. */
+    void recordRemoval(K key);
+
+    /** Forgets every key. */
+    void clear();
+}
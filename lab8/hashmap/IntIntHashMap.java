@@ -0,0 +1,230 @@
+package hashmap;
+
+/**
+ *  A hash table from int keys to int values that mirrors the Map61B
+ *  operations without boxing. Keys and values are stored in two parallel
+ *  int arrays with linear probing, like MyHashMapOA. Key 0 marks an empty
+ *  slot, so a mapping for key 0 is kept in separate fields.
+ *  Missing keys read as 0, which makes this map convenient for counters.
+ */
+public class IntIntHashMap {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /* Instance Variables */
+    private int[] keys;
+    private int[] values;
+    private int mask;  // table length - 1, table length is always a power of two
+    private double loadFactor = 0.75;
+    private int threshold;  // grow the table once size reaches this
+    private int size;  // number of keys in map, including key 0
+    private boolean hasZeroKey;
+    private int zeroValue;
+
+    /** Constructors */
+    public IntIntHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public IntIntHashMap(int initialSize) {
+        this(initialSize, 0.75);
+    }
+
+    /**
+     * IntIntHashMap constructor that creates backing arrays of at least initialSize.
+     *
+     * @param initialSize initial size of backing arrays
+     * @param maxLoad maximum load factor, must be in (0, 1)
+     */
+    public IntIntHashMap(int initialSize, double maxLoad) {
+        if (maxLoad <= 0 || maxLoad >= 1) {
+            throw new IllegalArgumentException("maxLoad must be in (0, 1)");
+        }
+        loadFactor = maxLoad;
+        createTable(tableSizeFor(initialSize));
+    }
+
+    /** Returns the smallest power of two no less than n (and at least 2). */
+    private static int tableSizeFor(int n) {
+        int capacity = 2;
+        while (capacity < n) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /** Scrambles key so that sequential keys spread over the table. */
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private void createTable(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        threshold = (int) Math.min(capacity - 1, capacity * loadFactor);
+    }
+
+    /** Removes all of the mappings from this map. */
+    public void clear() {
+        createTable(DEFAULT_CAPACITY);
+        size = 0;
+        hasZeroKey = false;
+        zeroValue = 0;
+    }
+
+    /** Returns the slot holding key, or -1 if key is not in map. key must not be 0. */
+    private int indexOf(int key) {
+        int i = hash(key) & mask;
+        while (keys[i] != 0) {
+            if (keys[i] == key) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    /** Returns true if this map contains a mapping for the specified key. */
+    public boolean containsKey(int key) {
+        return key == 0 ? hasZeroKey : indexOf(key) >= 0;
+    }
+
+    /** Returns the value mapped to key, or 0 if there is none. */
+    public int get(int key) {
+        if (key == 0) {
+            return zeroValue;
+        }
+        int i = indexOf(key);
+        return i < 0 ? 0 : values[i];
+    }
+
+    /** Returns the number of key-value mappings in this map. */
+    public int size() {
+        return size;
+    }
+
+    /** Associates value with key, replacing any old value. */
+    public void put(int key, int value) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            zeroValue = value;
+            return;
+        }
+        // slotFor() may replace the values array, so call it first
+        int i = slotFor(key);
+        values[i] = value;
+    }
+
+    /**
+     * Adds delta to the value mapped to key, treating a missing key as 0.
+     * @return the new value
+     */
+    public int increment(int key, int delta) {
+        if (key == 0) {
+            put(0, zeroValue + delta);
+            return zeroValue;
+        }
+        int i = slotFor(key);
+        values[i] += delta;
+        return values[i];
+    }
+
+    /**
+     * Returns the slot holding key, inserting key with value 0 first
+     * if it is not in map. key must not be 0.
+     */
+    private int slotFor(int key) {
+        if (size + 1 > threshold) {
+            resizeTable(keys.length * 2);
+        }
+        int i = hash(key) & mask;
+        while (keys[i] != 0) {
+            if (keys[i] == key) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = 0;
+        size++;
+        return i;
+    }
+
+    private void resizeTable(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        createTable(capacity);
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] == 0) {
+                continue;
+            }
+            int i = hash(oldKeys[j]) & mask;
+            while (keys[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = oldKeys[j];
+            values[i] = oldValues[j];
+        }
+    }
+
+    /** Removes the mapping for key and returns its value, or 0 if there is none. */
+    public int remove(int key) {
+        if (key == 0) {
+            int old = zeroValue;
+            if (hasZeroKey) {
+                hasZeroKey = false;
+                zeroValue = 0;
+                size--;
+            }
+            return old;
+        }
+        int i = indexOf(key);
+        if (i < 0) {
+            return 0;
+        }
+        int old = values[i];
+        deleteAt(i);
+        return old;
+    }
+
+    /** Deletes slot i with backward-shift deletion, see MyHashMapOA. */
+    private void deleteAt(int i) {
+        int hole = i;
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            if (keys[j] == 0) {
+                break;
+            }
+            int home = hash(keys[j]) & mask;
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                keys[hole] = keys[j];
+                values[hole] = values[j];
+                hole = j;
+            }
+        }
+        keys[hole] = 0;
+        values[hole] = 0;
+        size--;
+    }
+
+    /** Returns a new array holding every key of this map. */
+    public int[] keys() {
+        int[] result = new int[size];
+        int n = 0;
+        if (hasZeroKey) {
+            result[n++] = 0;
+        }
+        for (int key : keys) {
+            if (key != 0) {
+                result[n++] = key;
+            }
+        }
+        return result;
+    }
+}
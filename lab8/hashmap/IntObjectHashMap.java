@@ -0,0 +1,216 @@
+package hashmap;
+
+/**
+ *  A hash table from int keys to object values that mirrors the Map61B
+ *  operations without boxing keys. Keys are stored in an int array next to
+ *  a parallel value array with linear probing, like MyHashMapOA. Key 0
+ *  marks an empty slot, so a mapping for key 0 is kept in separate fields.
+ */
+public class IntObjectHashMap<V> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /* Instance Variables */
+    private int[] keys;
+    private V[] values;
+    private int mask;  // table length - 1, table length is always a power of two
+    private double loadFactor = 0.75;
+    private int threshold;  // grow the table once size reaches this
+    private int size;  // number of keys in map, including key 0
+    private boolean hasZeroKey;
+    private V zeroValue;
+
+    /** Constructors */
+    public IntObjectHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public IntObjectHashMap(int initialSize) {
+        this(initialSize, 0.75);
+    }
+
+    /**
+     * IntObjectHashMap constructor that creates backing arrays of at least initialSize.
+     *
+     * @param initialSize initial size of backing arrays
+     * @param maxLoad maximum load factor, must be in (0, 1)
+     */
+    public IntObjectHashMap(int initialSize, double maxLoad) {
+        if (maxLoad <= 0 || maxLoad >= 1) {
+            throw new IllegalArgumentException("maxLoad must be in (0, 1)");
+        }
+        loadFactor = maxLoad;
+        createTable(tableSizeFor(initialSize));
+    }
+
+    /** Returns the smallest power of two no less than n (and at least 2). */
+    private static int tableSizeFor(int n) {
+        int capacity = 2;
+        while (capacity < n) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /** Scrambles key so that sequential keys spread over the table. */
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void createTable(int capacity) {
+        keys = new int[capacity];
+        values = (V[]) new Object[capacity];
+        mask = capacity - 1;
+        threshold = (int) Math.min(capacity - 1, capacity * loadFactor);
+    }
+
+    /** Removes all of the mappings from this map. */
+    public void clear() {
+        createTable(DEFAULT_CAPACITY);
+        size = 0;
+        hasZeroKey = false;
+        zeroValue = null;
+    }
+
+    /** Returns the slot holding key, or -1 if key is not in map. key must not be 0. */
+    private int indexOf(int key) {
+        int i = hash(key) & mask;
+        while (keys[i] != 0) {
+            if (keys[i] == key) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    /** Returns true if this map contains a mapping for the specified key. */
+    public boolean containsKey(int key) {
+        return key == 0 ? hasZeroKey : indexOf(key) >= 0;
+    }
+
+    /** Returns the value mapped to key, or null if there is none. */
+    public V get(int key) {
+        if (key == 0) {
+            return zeroValue;
+        }
+        int i = indexOf(key);
+        return i < 0 ? null : values[i];
+    }
+
+    /** Returns the number of key-value mappings in this map. */
+    public int size() {
+        return size;
+    }
+
+    /** Associates value with key, replacing any old value. */
+    public void put(int key, V value) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            zeroValue = value;
+            return;
+        }
+        // slotFor() may replace the values array, so call it first
+        int i = slotFor(key);
+        values[i] = value;
+    }
+
+    /**
+     * Returns the slot holding key, inserting key with value null first
+     * if it is not in map. key must not be 0.
+     */
+    private int slotFor(int key) {
+        if (size + 1 > threshold) {
+            resizeTable(keys.length * 2);
+        }
+        int i = hash(key) & mask;
+        while (keys[i] != 0) {
+            if (keys[i] == key) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = null;
+        size++;
+        return i;
+    }
+
+    private void resizeTable(int capacity) {
+        int[] oldKeys = keys;
+        V[] oldValues = values;
+        createTable(capacity);
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] == 0) {
+                continue;
+            }
+            int i = hash(oldKeys[j]) & mask;
+            while (keys[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = oldKeys[j];
+            values[i] = oldValues[j];
+        }
+    }
+
+    /** Removes the mapping for key and returns its value, or null if there is none. */
+    public V remove(int key) {
+        if (key == 0) {
+            V old = zeroValue;
+            if (hasZeroKey) {
+                hasZeroKey = false;
+                zeroValue = null;
+                size--;
+            }
+            return old;
+        }
+        int i = indexOf(key);
+        if (i < 0) {
+            return null;
+        }
+        V old = values[i];
+        deleteAt(i);
+        return old;
+    }
+
+    /** Deletes slot i with backward-shift deletion, see MyHashMapOA. */
+    private void deleteAt(int i) {
+        int hole = i;
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            if (keys[j] == 0) {
+                break;
+            }
+            int home = hash(keys[j]) & mask;
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                keys[hole] = keys[j];
+                values[hole] = values[j];
+                hole = j;
+            }
+        }
+        keys[hole] = 0;
+        values[hole] = null;
+        size--;
+    }
+
+    /** Returns a new array holding every key of this map. */
+    public int[] keys() {
+        int[] result = new int[size];
+        int n = 0;
+        if (hasZeroKey) {
+            result[n++] = 0;
+        }
+        for (int key : keys) {
+            if (key != 0) {
+                result[n++] = key;
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,83 @@
+package hashmap;
+
+/**
+ * Evicts the least frequently used key, and the least recently used one
+ * among keys with the same frequency. Keys are kept in one access-order
+ * list per frequency, so finding the victim takes O(1).
+ * @param <K> key of the cache
+ */
+public class LfuPolicy<K> implements EvictionPolicy<K> {
+    private final int capacity;
+    private final MyHashMap<K, Integer> frequencies = new MyHashMap<>();
+    private final MyHashMap<Integer, AccessOrderList<K>> lists = new MyHashMap<>();
+    private int minFrequency;  // lowest frequency of any key
+
+    public LfuPolicy(int capacity) {
+        this.capacity = capacity;
+    }
+
+    @Override
+    public void recordAccess(K key) {
+        Integer frequency = frequencies.get(key);
+        if (frequency == null) {
+            return;
+        }
+        unlinkKey(key, frequency);
+        if (frequency == minFrequency && !lists.containsKey(frequency)) {
+            minFrequency++;
+        }
+        linkKey(key, frequency + 1);
+    }
+
+    @Override
+    public K recordInsertion(K key) {
+        // evict before inserting, so the new key is never its own victim
+        K victim = null;
+        if (frequencies.size() >= capacity) {
+            // recordRemoval() may have emptied the lowest list
+            while (!lists.containsKey(minFrequency)) {
+                minFrequency++;
+            }
+            victim = lists.get(minFrequency).peekLast();
+            recordRemoval(victim);
+        }
+        linkKey(key, 1);
+        minFrequency = 1;
+        return victim;
+    }
+
+    @Override
+    public void recordRemoval(K key) {
+        Integer frequency = frequencies.remove(key);
+        if (frequency != null) {
+            unlinkKey(key, frequency);
+        }
+    }
+
+    @Override
+    public void clear() {
+        frequencies.clear();
+        lists.clear();
+        minFrequency = 0;
+    }
+
+    /** Puts key at the front of the list for frequency */
+    private void linkKey(K key, int frequency) {
+        frequencies.put(key, frequency);
+        AccessOrderList<K> list = lists.get(frequency);
+        if (list == null) {
+            list = new AccessOrderList<>();
+            lists.put(frequency, list);
+        }
+        list.addFirst(key);
+    }
+
+    /** Takes key out of the list for frequency, dropping the list once empty */
+    private void unlinkKey(K key, int frequency) {
+        AccessOrderList<K> list = lists.get(frequency);
+        list.remove(key);
+        if (list.size() == 0) {
+            lists.remove(frequency);
+        }
+    }
+}
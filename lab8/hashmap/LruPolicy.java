@@ -0,0 +1,35 @@
+package hashmap;
+
+/**
+ * Evicts the least recently used key.
+ * @param <K> key of the cache
+ */
+public class LruPolicy<K> implements EvictionPolicy<K> {
+    private final int capacity;
+    private final AccessOrderList<K> order = new AccessOrderList<>();
+
+    public LruPolicy(int capacity) {
+        this.capacity = capacity;
+    }
+
+    @Override
+    public void recordAccess(K key) {
+        order.moveToFront(key);
+    }
+
+    @Override
+    public K recordInsertion(K key) {
+        order.addFirst(key);
+        return order.size() > capacity ? order.removeLast() : null;
+    }
+
+    @Override
+    public void recordRemoval(K key) {
+        order.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        order.clear();
+    }
+}
@@ -45,5 +45,56 @@ public interface Map61B<K, V> extends Iterable<K> {
      * throw an UnsupportedOperationException.
      */
     V remove(K key, V value);
+
+    /**
+     * Copies every mapping of other into this map. Implementations may
+     * size their backing storage once for all of the new keys.
+     */
+    default void putAll(Map61B<K, V> other) {
+        for (K key : other) {
+            put(key, other.get(key));
+        }
+    }
+
+    /**
+     * Associates keys[i] with values[i] for every i. Implementations may
+     * size their backing storage once for all of the new keys.
+     */
+    default void putAll(K[] keys, V[] values) {
+        if (keys.length != values.length) {
+            throw new IllegalArgumentException("keys and values differ in length");
+        }
+        for (int i = 0; i < keys.length; i++) {
+            put(keys[i], values[i]);
+        }
+    }
+
+    /**
+     * Stores the value mapped to keys[i] into out[i] for every i,
+     * or null if keys[i] is not in this map.
+     */
+    default void getAll(K[] keys, V[] out) {
+        if (keys.length > out.length) {
+            throw new IllegalArgumentException("out is shorter than keys");
+        }
+        for (int i = 0; i < keys.length; i++) {
+            out[i] = get(keys[i]);
+        }
+    }
+
+    /**
+     * Removes the mapping of every key in keys that is present.
+     * Returns the number of mappings removed. Values are never null, so a
+     * non-null result from remove() is what tells a key was present.
+     */
+    default int removeAll(K[] keys) {
+        int removed = 0;
+        for (K key : keys) {
+            if (remove(key) != null) {
+                removed++;
+            }
+        }
+        return removed;
+    }
 }
 
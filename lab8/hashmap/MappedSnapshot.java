@@ -0,0 +1,437 @@
+package hashmap;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ *  A read-only Map61B served straight from a memory-mapped snapshot file.
+ *  write() stores a map as a hash index followed by its serialized
+ *  entries; open() maps the file and is ready at once, since lookups
+ *  probe the index inside the mapping instead of rebuilding a table.
+ *  toMyHashMap() turns a snapshot back into a mutable MyHashMap using the
+ *  stored hashes, so no key is hashed or compared while loading.
+ *
+ *  File layout (big-endian):
+ *    header   magic, version, log2 of the region size, size, table size,
+ *             flags
+ *    index    table size slots of [record offset (long), byte hash (int),
+ *             key hash (int)]
+ *    records  [key length][value length][key bytes][value bytes]
+ *  The file is mapped in regions of at most 1 GB and no record crosses a
+ *  region, so snapshots may be larger than a single ByteBuffer.
+ *
+ *  The index is probed with a hash of the serialized key bytes, and keys
+ *  are matched by those bytes, as in OffHeapHashMap, so lookups work for
+ *  any key serializer, byte[] keys included. The key hash is MyHashMap's
+ *  spread hashCode(), used by toMyHashMap() only when write() found that
+ *  a deserialized key hashes like the original; identity-hashed keys such
+ *  as byte[] are hashed again as they are loaded.
+ */
+public class MappedSnapshot<K, V> implements Map61B<K, V> {
+
+    private static final int MAGIC = 0x4d363153;  // "M61S"
+    private static final int VERSION = 2;
+    private static final int HEADER = 32;
+    private static final int SLOT = 16;
+    private static final int DEFAULT_REGION_BITS = 30;
+    private static final int NULL_VALUE = -1;
+    /** Flag set if the stored key hashes hold in any JVM */
+    private static final int STABLE_KEY_HASHES = 1;
+
+    private final Serializer<K> keySerializer;
+    private final Serializer<V> valueSerializer;
+    private final ByteBuffer[] regions;
+    private final int regionBits;
+    private final int size;
+    private final int tableSize;
+    private final boolean stableKeyHashes;
+    private ByteBuffer scratch = ByteBuffer.allocate(256);
+
+    private MappedSnapshot(ByteBuffer[] regions, int regionBits, int size, int tableSize,
+                           int flags, Serializer<K> keySerializer,
+                           Serializer<V> valueSerializer) {
+        this.regions = regions;
+        this.regionBits = regionBits;
+        this.size = size;
+        this.tableSize = tableSize;
+        this.stableKeyHashes = (flags & STABLE_KEY_HASHES) != 0;
+        this.keySerializer = keySerializer;
+        this.valueSerializer = valueSerializer;
+    }
+
+    /**
+     * Writes every mapping of map to file, replacing its contents
+     * @param map the map to save
+     * @param file the snapshot file
+     * @param keySerializer turns keys into bytes
+     * @param valueSerializer turns values into bytes
+     */
+    public static <K, V> void write(Map61B<K, V> map, Path file, Serializer<K> keySerializer,
+                                    Serializer<V> valueSerializer) throws IOException {
+        write(map, file, keySerializer, valueSerializer, DEFAULT_REGION_BITS);
+    }
+
+    /** Writes a snapshot whose regions are 2^regionBits bytes long */
+    static <K, V> void write(Map61B<K, V> map, Path file, Serializer<K> keySerializer,
+                             Serializer<V> valueSerializer, int regionBits) throws IOException {
+        int size = map.size();
+        int tableSize = 2;
+        while (tableSize < 2 * size) {
+            tableSize <<= 1;
+        }
+        long region = 1L << regionBits;
+        long[] offsets = new long[tableSize];
+        int[] hashes = new int[tableSize];
+        int[] keyHashes = new int[tableSize];
+        int flags = STABLE_KEY_HASHES;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer out = ByteBuffer.allocate(1 << 20);
+            long outStart = HEADER + (long) tableSize * SLOT;  // file position of out
+            ByteBuffer record = ByteBuffer.allocate(256);
+            int count = 0;
+            for (K key : map) {
+                if (++count >= tableSize) {
+                    throw new IllegalStateException("map changed while writing snapshot");
+                }
+                // serialize into record, doubling it until the entry fits
+                V value = map.get(key);
+                while (true) {
+                    record.clear().position(8);
+                    try {
+                        keySerializer.write(key, record);
+                        int keyLength = record.position() - 8;
+                        int valueLength = NULL_VALUE;
+                        if (value != null) {
+                            valueSerializer.write(value, record);
+                            valueLength = record.position() - 8 - keyLength;
+                        }
+                        record.putInt(0, keyLength).putInt(4, valueLength).flip();
+                        break;
+                    } catch (BufferOverflowException e) {
+                        record = ByteBuffer.allocate(record.capacity() * 2);
+                    }
+                }
+                int length = record.remaining();
+                if (length > region) {
+                    throw new IllegalArgumentException("entry of " + length
+                            + " bytes is larger than a region");
+                }
+                long at = outStart + out.position();
+                if ((at & (region - 1)) + length > region) {
+                    // leave the rest of this region empty
+                    flush(channel, out, outStart);
+                    at = (at | (region - 1)) + 1;
+                    outStart = at;
+                } else if (out.remaining() < length) {
+                    flush(channel, out, outStart);
+                    outStart = at;
+                }
+                if (length > out.capacity()) {
+                    writeFully(channel, record, at);
+                    outStart = at + length;
+                } else {
+                    out.put(record);
+                }
+
+                int keyLength = record.getInt(0);
+                if (count == 1 && !hashesLikeCopy(key, record, keyLength, keySerializer)) {
+                    flags = 0;
+                }
+                int hash = OffHeapHashMap.hashBytes(record, 8, keyLength);
+                int i = hash & (tableSize - 1);
+                while (offsets[i] != 0) {
+                    i = (i + 1) & (tableSize - 1);
+                }
+                offsets[i] = at;
+                hashes[i] = hash;
+                keyHashes[i] = MyHashMap.hash(key);
+            }
+            flush(channel, out, outStart);
+
+            out.clear();
+            out.putInt(MAGIC).putInt(VERSION).putInt(regionBits).putInt(count)
+                    .putInt(tableSize).putInt(flags).putLong(0);
+            long position = 0;
+            for (int i = 0; i < tableSize; i++) {
+                if (out.remaining() < SLOT) {
+                    position += flush(channel, out, position);
+                }
+                out.putLong(offsets[i]).putInt(hashes[i]).putInt(keyHashes[i]);
+            }
+            flush(channel, out, position);
+        }
+    }
+
+    /**
+     * Returns true if key hashes like a copy deserialized from the
+     * keyLength bytes after the header of record, as keys with a hashCode()
+     * of their contents do and identity-hashed keys do not
+     */
+    private static <K> boolean hashesLikeCopy(K key, ByteBuffer record, int keyLength,
+                                              Serializer<K> keySerializer) {
+        ByteBuffer keyBytes = record.duplicate();
+        keyBytes.limit(8 + keyLength).position(8);
+        return keySerializer.read(keyBytes).hashCode() == key.hashCode();
+    }
+
+    /**
+     * Writes the bytes of buf before its position at position of channel,
+     * then clears buf
+     * @return the number of bytes written
+     */
+    private static int flush(FileChannel channel, ByteBuffer buf, long position)
+            throws IOException {
+        buf.flip();
+        int length = buf.remaining();
+        writeFully(channel, buf, position);
+        buf.clear();
+        return length;
+    }
+
+    /** Writes the remaining bytes of buf at position of channel */
+    private static void writeFully(FileChannel channel, ByteBuffer buf, long position)
+            throws IOException {
+        while (buf.hasRemaining()) {
+            position += channel.write(buf, position);
+        }
+    }
+
+    /**
+     * Maps a snapshot written by write()
+     * @param file the snapshot file
+     * @param keySerializer turns bytes into keys, and lookup keys into bytes
+     * @param valueSerializer turns bytes into values
+     */
+    public static <K, V> MappedSnapshot<K, V> open(Path file, Serializer<K> keySerializer,
+                                                   Serializer<V> valueSerializer)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER) {
+                throw new IOException(file + " is not a snapshot");
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER);
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                throw new IOException(file + " is not a snapshot");
+            }
+            int regionBits = header.getInt(8);
+            long region = 1L << regionBits;
+            // mappings stay valid after the channel is closed
+            ByteBuffer[] regions = new ByteBuffer[(int) ((fileSize + region - 1) >>> regionBits)];
+            for (int r = 0; r < regions.length; r++) {
+                long start = r * region;
+                regions[r] = channel.map(FileChannel.MapMode.READ_ONLY, start,
+                        Math.min(region, fileSize - start));
+            }
+            return new MappedSnapshot<>(regions, regionBits, header.getInt(12),
+                    header.getInt(16), header.getInt(20), keySerializer, valueSerializer);
+        }
+    }
+
+    /* Reading the mapping */
+
+    private ByteBuffer regionOf(long position) {
+        return regions[(int) (position >>> regionBits)];
+    }
+
+    private int offsetIn(long position) {
+        return (int) (position & ((1L << regionBits) - 1));
+    }
+
+    private long slotOffset(int i) {
+        long position = HEADER + (long) i * SLOT;
+        return regionOf(position).getLong(offsetIn(position));
+    }
+
+    private int slotHash(int i) {
+        long position = HEADER + (long) i * SLOT + 8;
+        return regionOf(position).getInt(offsetIn(position));
+    }
+
+    private int slotKeyHash(int i) {
+        long position = HEADER + (long) i * SLOT + 12;
+        return regionOf(position).getInt(offsetIn(position));
+    }
+
+    /** Deserializes length bytes at offset of region */
+    private static <T> T readAt(ByteBuffer region, int offset, int length, Serializer<T> s) {
+        region.limit(offset + length).position(offset);
+        T t = s.read(region);
+        region.clear();
+        return t;
+    }
+
+    private K readKey(long record) {
+        ByteBuffer region = regionOf(record);
+        int offset = offsetIn(record);
+        return readAt(region, offset + 8, region.getInt(offset), keySerializer);
+    }
+
+    private V readValue(long record) {
+        ByteBuffer region = regionOf(record);
+        int offset = offsetIn(record);
+        int valueLength = region.getInt(offset + 4);
+        if (valueLength == NULL_VALUE) {
+            return null;
+        }
+        return readAt(region, offset + 8 + region.getInt(offset), valueLength, valueSerializer);
+    }
+
+    /** Returns true if the record holds the first keyLength bytes of scratch as its key */
+    private boolean keyEquals(long record, int keyLength) {
+        ByteBuffer region = regionOf(record);
+        int offset = offsetIn(record);
+        if (region.getInt(offset) != keyLength) {
+            return false;
+        }
+        for (int i = 0; i < keyLength; i++) {
+            if (region.get(offset + 8 + i) != scratch.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Returns the offset of the record holding key, or 0 if there is none */
+    private long find(K key) {
+        int keyLength;
+        while (true) {
+            scratch.clear();
+            try {
+                keySerializer.write(key, scratch);
+                keyLength = scratch.position();
+                break;
+            } catch (BufferOverflowException e) {
+                scratch = ByteBuffer.allocate(scratch.capacity() * 2);
+            }
+        }
+        int hash = OffHeapHashMap.hashBytes(scratch, 0, keyLength);
+        int i = hash & (tableSize - 1);
+        long record;
+        while ((record = slotOffset(i)) != 0) {
+            if (slotHash(i) == hash && keyEquals(record, keyLength)) {
+                return record;
+            }
+            i = (i + 1) & (tableSize - 1);
+        }
+        return 0;
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        return find(key) != 0;
+    }
+
+    @Override
+    public V get(K key) {
+        long record = find(key);
+        return record == 0 ? null : readValue(record);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns a MyHashMap holding every mapping of this snapshot. Nodes go
+     * straight into their buckets using the stored key hashes, unless the
+     * keys are identity-hashed and must be hashed again.
+     */
+    public MyHashMap<K, V> toMyHashMap() {
+        MyHashMap<K, V> map = new MyHashMap<>();
+        map.ensureCapacity(size);
+        for (int i = 0; i < tableSize; i++) {
+            long record = slotOffset(i);
+            if (record != 0) {
+                K key = readKey(record);
+                int hash = stableKeyHashes ? slotKeyHash(i) : MyHashMap.hash(key);
+                map.putHashed(hash, key, readValue(record));
+            }
+        }
+        return map;
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException("snapshots are read-only");
+    }
+
+    @Override
+    public void put(K key, V value) {
+        throw new UnsupportedOperationException("snapshots are read-only");
+    }
+
+    @Override
+    public V remove(K key) {
+        throw new UnsupportedOperationException("snapshots are read-only");
+    }
+
+    @Override
+    public V remove(K key, V value) {
+        throw new UnsupportedOperationException("snapshots are read-only");
+    }
+
+    /** Returns a read-only Set view of the keys in this snapshot. */
+    @Override
+    public Set<K> keySet() {
+        return new AbstractSet<K>() {
+            @Override
+            public Iterator<K> iterator() {
+                return MappedSnapshot.this.iterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public boolean contains(Object o) {
+                return o != null && containsKey((K) o);
+            }
+        };
+    }
+
+    /** Iterates over keys in index order, deserializing each one */
+    @Override
+    public Iterator<K> iterator() {
+        return new Iterator<K>() {
+            private int next = advance(0);
+
+            /** Returns the first occupied slot at or after i. */
+            private int advance(int i) {
+                while (i < tableSize && slotOffset(i) == 0) {
+                    i++;
+                }
+                return i;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next < tableSize;
+            }
+
+            @Override
+            public K next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                K key = readKey(slotOffset(next));
+                next = advance(next + 1);
+                return key;
+            }
+        };
+    }
+}
@@ -5,7 +5,16 @@ import java.util.*;
 /**
  *  A hash table-backed Map implementation. Provides amortized constant time
  *  access to elements via get(), remove(), and put() in the best case.
- *  Assumes null keys will never be inserted, and does not resize down upon remove().
+ *  The backing array size is always a power of two, so a key's bucket is
+ *  found by masking its hash, and every node caches its hash so that
+ *  resizing never calls hashCode() again.
+ *  Assumes null keys will never be inserted, and only resizes down upon remove()
+ *  when constructed with a minimum load factor (see trimToSize() otherwise).
+ *  With incremental resizing enabled, growing the table does not rehash every
+ *  node at once: the old and new tables coexist and each operation migrates
+ *  a few buckets, so no single put() pays for the whole rehash.
+ *  enableStats() turns on get() hit/miss and resize counters, which are
+ *  reported with the bucket occupancy by stats().
  *  @author Q Xu
  */
 public class MyHashMap<K, V> implements Map61B<K, V> {
@@ -15,10 +24,12 @@ public class MyHashMap<K, V> implements Map61B<K, V> {
      * The protected qualifier allows subclass access
      */
     protected class Node {
+        final int hash;  // spread hash of key, cached so it is computed once
         K key;
         V value;
 
-        Node(K k, V v) {
+        Node(int h, K k, V v) {
+            hash = h;
             key = k;
             value = v;
         }
@@ -29,42 +40,108 @@ public class MyHashMap<K, V> implements Map61B<K, V> {
     private int tableSize = 16;
     private double loadFactor = 0.75;
     private int size;  // number of nodes in map
-    private Set<K> hashKeys;  // a set contains all keys
+
+    /* Shrinking */
+    private double minLoad = 0;  // shrink below this load factor, 0 never shrinks
+    private int minTableSize = 16;  // remove() never shrinks below this size
+
+    /* Incremental resizing */
+    private static final int MIGRATE_STEP = 4;  // buckets moved per operation
+    private boolean incrementalResize = false;
+    private Collection<Node>[] oldBuckets;  // table being drained, null if not resizing
+    private int migrated;  // buckets of oldBuckets below this order are moved
+
+    /* Stats, only counted while statsEnabled */
+    private boolean statsEnabled = false;
+    private long hits;
+    private long misses;
+    private long resizes;
+    private long resizeNanos;
 
     /** Constructors */
     public MyHashMap() {
         buckets = createTable(tableSize);
         size = 0;
-        hashKeys = new HashSet<>();
     }
 
     public MyHashMap(int initialSize) {
-        tableSize = initialSize;
+        tableSize = tableSizeFor(initialSize);
+        minTableSize = tableSize;
         buckets = createTable(tableSize);
         size = 0;
-        hashKeys = new HashSet<>();
     }
 
     /**
-     * MyHashMap constructor that creates a backing array of initialSize.
+     * MyHashMap constructor that creates a backing array of initialSize,
+     * rounded up to a power of two.
      * The load factor (# items / # buckets) should always be <= loadFactor
      *
      * @param initialSize initial size of backing array
      * @param maxLoad maximum load factor
      */
     public MyHashMap(int initialSize, double maxLoad) {
-        tableSize = initialSize;
+        tableSize = tableSizeFor(initialSize);
+        minTableSize = tableSize;
         loadFactor = maxLoad;
         buckets = createTable(tableSize);
         size = 0;
-        hashKeys = new HashSet<>();
+    }
+
+    /**
+     * MyHashMap constructor that can spread each resize over later operations
+     * instead of rehashing the whole table inside one put().
+     *
+     * @param initialSize initial size of backing array
+     * @param maxLoad maximum load factor
+     * @param incrementalResize whether to migrate buckets incrementally
+     */
+    public MyHashMap(int initialSize, double maxLoad, boolean incrementalResize) {
+        this(initialSize, maxLoad);
+        this.incrementalResize = incrementalResize;
+    }
+
+    /**
+     * MyHashMap constructor that halves the backing array in remove() once
+     * the load factor drops below minLoad, but never below initialSize.
+     * minLoad must be at most a quarter of maxLoad, so that the load factor
+     * after shrinking or growing lands well away from the other boundary
+     * and put/remove around a boundary does not resize back and forth.
+     *
+     * @param initialSize initial and minimum size of backing array
+     * @param maxLoad maximum load factor
+     * @param minLoad minimum load factor, 0 to never shrink
+     */
+    public MyHashMap(int initialSize, double maxLoad, double minLoad) {
+        this(initialSize, maxLoad);
+        if (minLoad < 0 || minLoad > maxLoad / 4) {
+            throw new IllegalArgumentException("minLoad must be in [0, maxLoad / 4]");
+        }
+        this.minLoad = minLoad;
+    }
+
+    /** Returns the smallest power of two no less than n */
+    private static int tableSizeFor(int n) {
+        int size = 1;
+        while (size < n) {
+            size <<= 1;
+        }
+        return size;
+    }
+
+    /**
+     * Returns the hash of a key with its high bits spread into the low
+     * bits, which are the only ones a power of two table looks at
+     */
+    static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
     }
 
     /**
      * Returns a new node to be placed in a hash table bucket
      */
-    private Node createNode(K key, V value) {
-        return new Node(key, value);
+    private Node createNode(int hash, K key, V value) {
+        return new Node(hash, key, value);
     }
 
     /**
@@ -85,6 +162,25 @@ public class MyHashMap<K, V> implements Map61B<K, V> {
         return new LinkedList<>();
     }
 
+    /**
+     * Returns the node whose key equals key in a bucket, or null if
+     * there is none. Scans the whole bucket by default; override this
+     * method along with createBucket() when the bucket type can find
+     * a key without a linear scan
+     *
+     * @param bucket the bucket to search
+     * @param key the key to find
+     * @param hash the spread hash of key, compared before calling equals()
+     */
+    protected Node findNode(Collection<Node> bucket, K key, int hash) {
+        for (Node node : bucket) {
+            if (node.hash == hash && key.equals(node.key)) {
+                return node;
+            }
+        }
+        return null;
+    }
+
     /**
      * Returns a table to back our hash table. As per the comment
      * above, this table can be an array of Collection objects
@@ -103,9 +199,9 @@ public class MyHashMap<K, V> implements Map61B<K, V> {
         // set backing array size to default size
         tableSize = 16;
         size = 0;
-        hashKeys = new HashSet<>();
         // point buckets to new table
         buckets = createTable(tableSize);
+        oldBuckets = null;
     }
 
     /**
@@ -118,31 +214,45 @@ public class MyHashMap<K, V> implements Map61B<K, V> {
         if (size == 0) {
             return false;
         }
-        // corresponding bucket order of key in hashing table
-        int order = Math.floorMod(key.hashCode(), tableSize);
-        // if find a node whose key equals to parameter key, return true
-        for (Node node: buckets[order]) {
-            if (key.equals(node.key)) {
-                return true;
-            }
+        migrateBuckets();
+        // corresponding bucket of key in hashing table
+        int hash = hash(key);
+        Collection<Node> bucket = bucketFor(hash, false);
+        if (bucket == null) {
+            return false;
         }
-        return false;
+        // if find a node whose key equals to parameter key, return true
+        return findNode(bucket, key, hash) != null;
     }
 
     @Override
     public V get(K key) {
         if (size == 0) {
+            if (statsEnabled) {
+                misses++;
+            }
             return null;
         }
-        // corresponding bucket order of key in hashing table
-        int order = Math.floorMod(key.hashCode(), tableSize);
-        // if find a node whose key equals to parameter key, return true
-        for (Node node: buckets[order]) {
-            if (key.equals(node.key)) {
-                return node.value;
+        migrateBuckets();
+        // corresponding bucket of key in hashing table
+        int hash = hash(key);
+        Collection<Node> bucket = bucketFor(hash, false);
+        if (bucket == null) {
+            if (statsEnabled) {
+                misses++;
             }
+            return null;
         }
-        return null;
+        // if find a node whose key equals to parameter key, return its value
+        Node node = findNode(bucket, key, hash);
+        if (statsEnabled) {
+            if (node == null) {
+                misses++;
+            } else {
+                hits++;
+            }
+        }
+        return node == null ? null : node.value;
     }
 
     /**
@@ -162,26 +272,117 @@ public class MyHashMap<K, V> implements Map61B<K, V> {
     public void put(K key, V value) {
         // if N/M > load factor, increase table size
         if (((double) (size + 1)) / tableSize > loadFactor) {
-            resizeTable(tableSize * 2);
+            if (incrementalResize) {
+                startResize(tableSize * 2);
+            } else {
+                resizeTable(tableSize * 2);
+            }
             tableSize *= 2;
         }
+        migrateBuckets();
 
-        int order = Math.floorMod(key.hashCode(), tableSize);
-        // if no bucket created for this table order, create an new bucket
-        if (buckets[order] == null) {
-            buckets[order] = createBucket();
-        }
+        // if no bucket created for this key, create an new bucket
+        int hash = hash(key);
+        Collection<Node> bucket = bucketFor(hash, true);
         // if the same key already exist, just update the value
-        for (Node node: buckets[order]) {
-            if (key.equals(node.key)) {
-                node.value = value;
-                return;
-            }
+        Node node = findNode(bucket, key, hash);
+        if (node != null) {
+            node.value = value;
+            return;
         }
         // insert this key to correspond bucket in hashing table
-        buckets[order].add(createNode(key, value));
+        bucket.add(createNode(hash, key, value));
         size++;
-        hashKeys.add(key);
+    }
+
+    /**
+     * Returns the bucket a key belongs to. While an incremental resize is
+     * running, keys whose old bucket has not been migrated yet still live
+     * in the old table.
+     * @param hash the spread hash of the key to look up
+     * @param create whether to create the bucket if it does not exist
+     * @return the bucket, or null if it does not exist and create is false
+     */
+    private Collection<Node> bucketFor(int hash, boolean create) {
+        Collection<Node>[] table = buckets;
+        if (oldBuckets != null && (hash & (oldBuckets.length - 1)) >= migrated) {
+            table = oldBuckets;
+        }
+        int order = hash & (table.length - 1);
+        if (table[order] == null && create) {
+            table[order] = createBucket();
+        }
+        return table[order];
+    }
+
+    /**
+     * Start an incremental resize, leaving all nodes in the old table
+     * @param tableSize new size of backing array
+     */
+    private void startResize(int tableSize) {
+        // a resize still in progress has to finish before the next one starts
+        finishResize();
+        long start = statsEnabled ? System.nanoTime() : 0;
+        oldBuckets = buckets;
+        buckets = createTable(tableSize);
+        migrated = 0;
+        if (statsEnabled) {
+            resizes++;
+            resizeNanos += System.nanoTime() - start;
+        }
+    }
+
+    /** Move up to MIGRATE_STEP buckets from the old table to the new one */
+    private void migrateBuckets() {
+        if (oldBuckets == null) {
+            return;
+        }
+        long start = statsEnabled ? System.nanoTime() : 0;
+        int end = Math.min(migrated + MIGRATE_STEP, oldBuckets.length);
+        for (; migrated < end; migrated++) {
+            moveBucket(oldBuckets[migrated], buckets);
+            oldBuckets[migrated] = null;
+        }
+        if (migrated == oldBuckets.length) {
+            oldBuckets = null;
+        }
+        if (statsEnabled) {
+            resizeNanos += System.nanoTime() - start;
+        }
+    }
+
+    /** Move every remaining bucket of an incremental resize */
+    private void finishResize() {
+        if (oldBuckets == null) {
+            return;
+        }
+        long start = statsEnabled ? System.nanoTime() : 0;
+        for (; migrated < oldBuckets.length; migrated++) {
+            moveBucket(oldBuckets[migrated], buckets);
+        }
+        oldBuckets = null;
+        if (statsEnabled) {
+            resizeNanos += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Rehash every node of a bucket into a table
+     * @param bucket the bucket to move, may be null
+     * @param newBuckets the table to move nodes into
+     */
+    private void moveBucket(Collection<Node> bucket, Collection<Node>[] newBuckets) {
+        if (bucket == null) {
+            return;
+        }
+        for (Node node : bucket) {
+            int newOrder = node.hash & (newBuckets.length - 1);
+            // if no bucket in new table, create it first
+            if (newBuckets[newOrder] == null) {
+                newBuckets[newOrder] = createBucket();
+            }
+            newBuckets[newOrder].add(node);
+        }
     }
 
     /**
@@ -189,29 +390,179 @@ public class MyHashMap<K, V> implements Map61B<K, V> {
      * @param tableSize new size of backing array
      */
     private void resizeTable(int tableSize) {
+        long start = statsEnabled ? System.nanoTime() : 0;
         Collection<Node>[] newBuckets = createTable(tableSize);
         // move buckets from old to new
         for (Collection<Node> bucket : buckets) {
-            if (bucket == null) {
-                continue;
-            }
-            for (Node node : bucket) {
-                int newOrder = Math.floorMod(node.key.hashCode(), tableSize);
-                // if no bucket in new table, create it first
-                if (newBuckets[newOrder] == null) {
-                    newBuckets[newOrder] = createBucket();
-                }
-                newBuckets[newOrder].add(node);
-            }
+            moveBucket(bucket, newBuckets);
         }
         // point buckets to new
         buckets = newBuckets;
+        if (statsEnabled) {
+            resizes++;
+            resizeNanos += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Halve the backing array if the load factor dropped below minLoad
+     */
+    private void shrinkIfSparse() {
+        if (minLoad == 0 || tableSize / 2 < minTableSize
+                || ((double) size) / tableSize >= minLoad) {
+            return;
+        }
+        finishResize();
+        resizeTable(tableSize / 2);
+        tableSize /= 2;
+    }
+
+    /**
+     * Shrink the backing array to the smallest power of two size that keeps
+     * the load factor <= loadFactor, e.g. after a burst of entries has been removed
+     */
+    public void trimToSize() {
+        int newSize = tableSizeFor((int) Math.ceil(size / loadFactor));
+        if (newSize >= tableSize) {
+            return;
+        }
+        finishResize();
+        resizeTable(newSize);
+        tableSize = newSize;
+    }
+
+    /**
+     * Grow the backing array once so that it can hold n nodes without
+     * exceeding loadFactor, instead of doubling it again and again
+     * while a batch of new keys is put
+     * @param n number of nodes the map should hold without resizing
+     */
+    public void ensureCapacity(int n) {
+        int newSize = tableSize;
+        while (((double) n) / newSize > loadFactor) {
+            newSize *= 2;
+        }
+        if (newSize == tableSize) {
+            return;
+        }
+        finishResize();
+        resizeTable(newSize);
+        tableSize = newSize;
+    }
+
+    /**
+     * Start counting get() hits and misses and resizes, from zero.
+     * Until this is called the counters cost one branch per operation.
+     */
+    public void enableStats() {
+        statsEnabled = true;
+        hits = 0;
+        misses = 0;
+        resizes = 0;
+        resizeNanos = 0;
     }
 
-    /** Returns a Set view of the keys contained in this map. */
+    /** Stop counting, stats() keeps reporting the counts so far */
+    public void disableStats() {
+        statsEnabled = false;
+    }
+
+    /**
+     * Returns a snapshot of the bucket occupancy and the counters. Walks
+     * every bucket, and finishes an incremental resize in progress so that
+     * the histogram describes a single table.
+     */
+    public MyHashMapStats stats() {
+        finishResize();
+        int[] counts = new int[1];
+        for (Collection<Node> bucket : buckets) {
+            int length = bucket == null ? 0 : bucket.size();
+            if (length >= counts.length) {
+                counts = Arrays.copyOf(counts, length + 1);
+            }
+            counts[length]++;
+        }
+        return new MyHashMapStats(size, tableSize, counts, hits, misses, resizes, resizeNanos);
+    }
+
+    /**
+     * Copies every mapping of other into this map, growing the table
+     * at most once. Keys already in this map are counted as new when
+     * sizing, so the table may end up one size larger than needed.
+     */
+    @Override
+    public void putAll(Map61B<K, V> other) {
+        ensureCapacity(size + other.size());
+        for (K key : other) {
+            put(key, other.get(key));
+        }
+    }
+
+    /**
+     * Associates keys[i] with values[i] for every i, growing the table
+     * at most once
+     */
+    @Override
+    public void putAll(K[] keys, V[] values) {
+        if (keys.length != values.length) {
+            throw new IllegalArgumentException("keys and values differ in length");
+        }
+        ensureCapacity(size + keys.length);
+        for (int i = 0; i < keys.length; i++) {
+            put(keys[i], values[i]);
+        }
+    }
+
+    /**
+     * Add a node whose key is known not to be in map, using a spread hash
+     * computed earlier (e.g. one stored in a snapshot), so neither
+     * hashCode() nor equals() is called. Never resizes: call
+     * ensureCapacity() first.
+     */
+    void putHashed(int hash, K key, V value) {
+        bucketFor(hash, true).add(createNode(hash, key, value));
+        size++;
+    }
+
+    /**
+     * Returns a Set view of the keys contained in this map. The view is
+     * backed by the bucket table, so it reflects later changes to the map
+     * and removing from it removes the mapping.
+     */
     @Override
     public Set<K> keySet() {
-        return hashKeys;
+        return new AbstractSet<K>() {
+            @Override
+            public Iterator<K> iterator() {
+                return MyHashMap.this.iterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public boolean contains(Object o) {
+                return o != null && containsKey((K) o);
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public boolean remove(Object o) {
+                if (!contains(o)) {
+                    return false;
+                }
+                MyHashMap.this.remove((K) o);
+                return true;
+            }
+
+            @Override
+            public void clear() {
+                MyHashMap.this.clear();
+            }
+        };
     }
 
     @Override
@@ -219,20 +570,18 @@ public class MyHashMap<K, V> implements Map61B<K, V> {
         if (size == 0) {
             return null;
         }
-        int order = Math.floorMod(key.hashCode(), tableSize);
-        if (buckets[order] == null) {
+        migrateBuckets();
+        int hash = hash(key);
+        Collection<Node> bucket = bucketFor(hash, false);
+        if (bucket == null) {
             return null;
-        }else {
-            for (int i = 0; i < buckets[order].size();) {
-                if (key.equals(((LinkedList<Node>) buckets[order]).get(i).key)) {
-                    size--;
-                    hashKeys.remove(key);
-                    return ((LinkedList<Node>) buckets[order]).remove(i).value;
-                }
-                i++;
-            }
         }
-        return null;
+        Node node = findNode(bucket, key, hash);
+        if (node == null) {
+            return null;
+        }
+        removeNode(bucket, node);
+        return node.value;
     }
 
     @Override
@@ -240,25 +589,79 @@ public class MyHashMap<K, V> implements Map61B<K, V> {
         if (size == 0) {
             return null;
         }
-        int order = Math.floorMod(key.hashCode(), tableSize);
-        if (buckets[order] == null) {
+        migrateBuckets();
+        int hash = hash(key);
+        Collection<Node> bucket = bucketFor(hash, false);
+        if (bucket == null) {
             return null;
-        }else {
-            for (int i = 0; i < buckets[order].size();) {
-                if (key.equals(((LinkedList<Node>) buckets[order]).get(i).key)
-                && value.equals(((LinkedList<Node>) buckets[order]).get(i).value)) {
-                    size--;
-                    hashKeys.remove(key);
-                    return ((LinkedList<Node>) buckets[order]).remove(i).value;
-                }
-                i++;
-            }
         }
-        return null;
+        Node node = findNode(bucket, key, hash);
+        if (node == null || !value.equals(node.value)) {
+            return null;
+        }
+        removeNode(bucket, node);
+        return node.value;
+    }
+
+    /**
+     * Remove a node found by findNode() from its bucket
+     * @param bucket the bucket holding node
+     * @param node the node to remove
+     */
+    private void removeNode(Collection<Node> bucket, Node node) {
+        // Node does not override equals(), so every bucket type
+        // removes exactly this node
+        bucket.remove(node);
+        size--;
+        shrinkIfSparse();
     }
 
     @Override
     public Iterator<K> iterator() {
-        return hashKeys.iterator();
+        // iteration only walks the current table
+        finishResize();
+        return new KeyIterator();
+    }
+
+    /**
+     * Iterates over keys by walking the buckets of the table in order,
+     * supports removing the last returned key (which never shrinks the table)
+     */
+    private class KeyIterator implements Iterator<K> {
+        private int nextBucket = 0;  // order of the next bucket to visit
+        private Iterator<Node> current = Collections.emptyIterator();
+        private Iterator<Node> lastReturned;  // bucket iterator of last key
+
+        @Override
+        public boolean hasNext() {
+            // skip over empty and uncreated buckets
+            while (!current.hasNext() && nextBucket < buckets.length) {
+                Collection<Node> bucket = buckets[nextBucket];
+                nextBucket++;
+                if (bucket != null) {
+                    current = bucket.iterator();
+                }
+            }
+            return current.hasNext();
+        }
+
+        @Override
+        public K next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            lastReturned = current;
+            return current.next().key;
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned == null) {
+                throw new IllegalStateException();
+            }
+            lastReturned.remove();
+            lastReturned = null;
+            size--;
+        }
     }
 }
@@ -0,0 +1,304 @@
+package hashmap;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ *  A hash table-backed Map implementation using open addressing. Keys and
+ *  values are stored in two parallel arrays and collisions are resolved by
+ *  linear probing, so put() never allocates a node or a bucket per entry.
+ *  remove() uses backward-shift deletion instead of tombstones, so probe
+ *  sequences stay short no matter how many removals have happened.
+ *  Assumes null keys will never be inserted.
+ */
+public class MyHashMapOA<K, V> implements Map61B<K, V> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /* Instance Variables */
+    private K[] keys;
+    private V[] values;
+    private int mask;  // table length - 1, table length is always a power of two
+    private double loadFactor = 0.75;
+    private int threshold;  // grow the table once size reaches this
+    private int size;  // number of keys in map
+
+    /** Constructors */
+    public MyHashMapOA() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public MyHashMapOA(int initialSize) {
+        this(initialSize, 0.75);
+    }
+
+    /**
+     * MyHashMapOA constructor that creates backing arrays of at least initialSize.
+     * Open addressing needs at least one empty slot, so maxLoad must be below 1.
+     *
+     * @param initialSize initial size of backing arrays
+     * @param maxLoad maximum load factor
+     */
+    public MyHashMapOA(int initialSize, double maxLoad) {
+        if (maxLoad <= 0 || maxLoad >= 1) {
+            throw new IllegalArgumentException("maxLoad must be in (0, 1)");
+        }
+        loadFactor = maxLoad;
+        createTable(tableSizeFor(initialSize));
+        size = 0;
+    }
+
+    /** Returns the smallest power of two no less than n (and at least 2). */
+    private static int tableSizeFor(int n) {
+        int capacity = 2;
+        while (capacity < n) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /** Spreads the high bits of hashCode() into the low bits used by the mask. */
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Points keys and values to fresh arrays of the given length
+     * @param capacity length of the new arrays, must be a power of two
+     */
+    @SuppressWarnings("unchecked")
+    private void createTable(int capacity) {
+        keys = (K[]) new Object[capacity];
+        values = (V[]) new Object[capacity];
+        mask = capacity - 1;
+        threshold = (int) Math.min(capacity - 1, capacity * loadFactor);
+    }
+
+    /** Remove all mappings from map */
+    @Override
+    public void clear() {
+        createTable(DEFAULT_CAPACITY);
+        size = 0;
+    }
+
+    /**
+     * Find the slot holding a key
+     * @param key the key we want to find
+     * @return index of the slot holding key, or -1 if key is not in map
+     */
+    private int indexOf(K key) {
+        int i = hash(key) & mask;
+        // an empty slot ends the probe sequence
+        while (keys[i] != null) {
+            if (key.equals(keys[i])) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public V get(K key) {
+        int i = indexOf(key);
+        return i < 0 ? null : values[i];
+    }
+
+    /**
+     * @return the number of keys in map
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Add new key-value pair to map
+     * @param key key to be added
+     * @param value value to be added
+     */
+    @Override
+    public void put(K key, V value) {
+        if (size + 1 > threshold) {
+            resizeTable(keys.length * 2);
+        }
+        int i = hash(key) & mask;
+        while (keys[i] != null) {
+            // if the same key already exist, just update the value
+            if (key.equals(keys[i])) {
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        size++;
+    }
+
+    /**
+     * Move every key-value pair into new arrays
+     * @param capacity new length of backing arrays
+     */
+    private void resizeTable(int capacity) {
+        K[] oldKeys = keys;
+        V[] oldValues = values;
+        createTable(capacity);
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] == null) {
+                continue;
+            }
+            int i = hash(oldKeys[j]) & mask;
+            while (keys[i] != null) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = oldKeys[j];
+            values[i] = oldValues[j];
+        }
+    }
+
+    /**
+     * Grow the backing arrays once so that they can hold n keys without
+     * exceeding loadFactor
+     * @param n number of keys the map should hold without resizing
+     */
+    public void ensureCapacity(int n) {
+        int capacity = keys.length;
+        while (n > (int) Math.min(capacity - 1, capacity * loadFactor)) {
+            capacity *= 2;
+        }
+        if (capacity != keys.length) {
+            resizeTable(capacity);
+        }
+    }
+
+    @Override
+    public void putAll(Map61B<K, V> other) {
+        ensureCapacity(size + other.size());
+        for (K key : other) {
+            put(key, other.get(key));
+        }
+    }
+
+    @Override
+    public void putAll(K[] newKeys, V[] newValues) {
+        if (newKeys.length != newValues.length) {
+            throw new IllegalArgumentException("keys and values differ in length");
+        }
+        ensureCapacity(size + newKeys.length);
+        for (int i = 0; i < newKeys.length; i++) {
+            put(newKeys[i], newValues[i]);
+        }
+    }
+
+    /**
+     * Delete the pair at slot i, then shift later pairs of the same probe
+     * run back into the hole so no lookup is cut short by an empty slot.
+     */
+    private void deleteAt(int i) {
+        int hole = i;
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            if (keys[j] == null) {
+                break;
+            }
+            int home = hash(keys[j]) & mask;
+            // the pair at j may fill the hole only if the hole is not
+            // before its home slot on the probe sequence
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                keys[hole] = keys[j];
+                values[hole] = values[j];
+                hole = j;
+            }
+        }
+        keys[hole] = null;
+        values[hole] = null;
+        size--;
+    }
+
+    @Override
+    public V remove(K key) {
+        int i = indexOf(key);
+        if (i < 0) {
+            return null;
+        }
+        V value = values[i];
+        deleteAt(i);
+        return value;
+    }
+
+    @Override
+    public V remove(K key, V value) {
+        int i = indexOf(key);
+        if (i < 0 || !value.equals(values[i])) {
+            return null;
+        }
+        V old = values[i];
+        deleteAt(i);
+        return old;
+    }
+
+    /** Returns a Set view of the keys contained in this map. */
+    @Override
+    public Set<K> keySet() {
+        return new AbstractSet<K>() {
+            @Override
+            public Iterator<K> iterator() {
+                return MyHashMapOA.this.iterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public boolean contains(Object o) {
+                return o != null && containsKey((K) o);
+            }
+        };
+    }
+
+    @Override
+    public Iterator<K> iterator() {
+        return new KeyIterator();
+    }
+
+    /** Iterates over keys by scanning the key array from left to right. */
+    private class KeyIterator implements Iterator<K> {
+        private int next = advance(0);
+
+        /** Returns the first occupied slot at or after i. */
+        private int advance(int i) {
+            while (i < keys.length && keys[i] == null) {
+                i++;
+            }
+            return i;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < keys.length;
+        }
+
+        @Override
+        public K next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            K key = keys[next];
+            next = advance(next + 1);
+            return key;
+        }
+    }
+}
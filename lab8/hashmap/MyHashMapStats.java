@@ -0,0 +1,114 @@
+package hashmap;
+
+import java.util.Arrays;
+
+/**
+ *  An immutable snapshot of the shape of a MyHashMap and of the counters
+ *  it keeps while stats are enabled (see MyHashMap.enableStats()).
+ *  The bucket figures are computed when the snapshot is taken, so they
+ *  cost nothing on the hot path. A long average probe length at a normal
+ *  load factor points at a poor hashCode(); many resizes point at an
+ *  initial size or load factor that is too small.
+ */
+public class MyHashMapStats {
+
+    private final int size;
+    private final int tableSize;
+    private final int[] histogram;
+    private final long probes;
+    private final long hits;
+    private final long misses;
+    private final long resizes;
+    private final long resizeNanos;
+
+    MyHashMapStats(int size, int tableSize, int[] histogram,
+                   long hits, long misses, long resizes, long resizeNanos) {
+        this.size = size;
+        this.tableSize = tableSize;
+        this.histogram = histogram;
+        this.hits = hits;
+        this.misses = misses;
+        this.resizes = resizes;
+        this.resizeNanos = resizeNanos;
+        long p = 0;
+        for (int length = 1; length < histogram.length; length++) {
+            // finding the i-th node of a chain looks at i nodes
+            p += (long) histogram[length] * length * (length + 1) / 2;
+        }
+        probes = p;
+    }
+
+    /** Returns the number of keys in the map */
+    public int size() {
+        return size;
+    }
+
+    /** Returns the number of buckets in the backing array */
+    public int tableSize() {
+        return tableSize;
+    }
+
+    /** Returns size / tableSize */
+    public double loadFactor() {
+        return (double) size / tableSize;
+    }
+
+    /**
+     * Returns a copy of the bucket occupancy histogram: element i is the
+     * number of buckets holding exactly i keys
+     */
+    public int[] bucketHistogram() {
+        return Arrays.copyOf(histogram, histogram.length);
+    }
+
+    /** Returns the number of keys in the fullest bucket */
+    public int maxChainLength() {
+        return histogram.length - 1;
+    }
+
+    /** Returns the average number of keys in a non-empty bucket */
+    public double averageChainLength() {
+        int used = tableSize - histogram[0];
+        return used == 0 ? 0 : (double) size / used;
+    }
+
+    /**
+     * Returns the average number of nodes a successful get() compares
+     * against when buckets are scanned in order, 1 for a perfect hash
+     */
+    public double averageProbeLength() {
+        return size == 0 ? 0 : (double) probes / size;
+    }
+
+    /** Returns the number of get() calls that found their key */
+    public long hitCount() {
+        return hits;
+    }
+
+    /** Returns the number of get() calls that did not find their key */
+    public long missCount() {
+        return misses;
+    }
+
+    /** Returns the number of times the backing array was resized */
+    public long resizeCount() {
+        return resizes;
+    }
+
+    /**
+     * Returns the total time spent resizing, in nanoseconds, including
+     * the buckets migrated by later operations of an incremental resize
+     */
+    public long resizeNanos() {
+        return resizeNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("size=%d tableSize=%d load=%.3f avgChain=%.2f maxChain=%d "
+                        + "avgProbe=%.2f hits=%d misses=%d resizes=%d resizeMs=%.3f histogram=%s",
+                size, tableSize, loadFactor(), averageChainLength(), maxChainLength(),
+                averageProbeLength(), hits, misses, resizes, resizeNanos / 1e6,
+                Arrays.toString(histogram));
+    }
+}
@@ -0,0 +1,233 @@
+package hashmap;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+
+/**
+ * Hash Table with buckets that start as array lists and turn into
+ * balanced trees once they grow past TREEIFY_THRESHOLD nodes, so a flood
+ * of keys with colliding hash codes costs O(log n) per lookup instead of
+ * O(n). A tree bucket turns back into a list once it shrinks to
+ * UNTREEIFY_THRESHOLD nodes.
+ * Tree buckets order keys by hashCode(), then by class name, then by
+ * compareTo() when both keys are of the same Comparable class. Keys that
+ * tie on all of these share a tree entry and are scanned with equals().
+ */
+public class MyHashMapTreeBuckets<K, V> extends MyHashMap<K, V> {
+
+    private static final int TREEIFY_THRESHOLD = 8;
+    private static final int UNTREEIFY_THRESHOLD = 6;
+
+    /**
+     * Constructor that creates a backing array with default
+     * initial size and load factor
+     */
+    public MyHashMapTreeBuckets() {
+        super();
+    }
+
+    /**
+     * Constructor that creates a backing array of initialSize
+     * and default load factor
+     *
+     * @param initialSize initial size of backing array
+     */
+    public MyHashMapTreeBuckets(int initialSize) {
+        super(initialSize);
+    }
+
+    /**
+     * Constructor that creates a backing array of initialSize.
+     * The load factor (# items / # buckets) should always be <= loadFactor
+     *
+     * @param initialSize initial size of backing array
+     * @param maxLoad maximum load factor
+     */
+    public MyHashMapTreeBuckets(int initialSize, double maxLoad) {
+        super(initialSize, maxLoad);
+    }
+
+    @Override
+    protected Collection<Node> createBucket() {
+        return new TreeifyingBucket();
+    }
+
+    @Override
+    protected Node findNode(Collection<Node> bucket, K key, int hash) {
+        return ((TreeifyingBucket) bucket).find(key, hash);
+    }
+
+    /**
+     * Orders keys by hash code, then by class name, then by compareTo()
+     * where both keys are of the same Comparable class. Comparing class
+     * names first keeps the order transitive when keys of different classes
+     * share a hash code; without it "Aa" < 2112 < "BB" could tie both ways
+     * and lose keys in the tree.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final Comparator<Object> KEY_ORDER = (a, b) -> {
+        int ha = a.hashCode();
+        int hb = b.hashCode();
+        if (ha != hb) {
+            return Integer.compare(ha, hb);
+        }
+        int byClass = a.getClass().getName().compareTo(b.getClass().getName());
+        if (byClass != 0) {
+            return byClass;
+        }
+        if (a.getClass() == b.getClass() && a instanceof Comparable) {
+            return ((Comparable) a).compareTo(b);
+        }
+        return 0;
+    };
+
+    /**
+     * A bucket that is a list while small and a tree while large.
+     * Exactly one of list and tree is non-null.
+     */
+    private class TreeifyingBucket extends AbstractCollection<Node> {
+        private List<Node> list = new ArrayList<>();
+        // each entry holds the nodes whose keys tie under KEY_ORDER
+        private TreeMap<K, List<Node>> tree;
+        private int size;
+
+        /** Returns the node holding key, or null if there is none */
+        Node find(K key, int hash) {
+            List<Node> nodes = list;
+            if (tree != null) {
+                nodes = tree.get(key);
+                if (nodes == null) {
+                    return null;
+                }
+            }
+            for (Node node : nodes) {
+                if (node.hash == hash && key.equals(node.key)) {
+                    return node;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public boolean add(Node node) {
+            if (tree != null) {
+                tree.computeIfAbsent(node.key, k -> new ArrayList<>(1)).add(node);
+            } else {
+                list.add(node);
+                if (list.size() > TREEIFY_THRESHOLD) {
+                    treeify();
+                }
+            }
+            size++;
+            return true;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean remove(Object o) {
+            Node node = (Node) o;
+            if (tree == null) {
+                if (!list.remove(node)) {
+                    return false;
+                }
+            } else {
+                List<Node> nodes = tree.get(node.key);
+                if (nodes == null || !nodes.remove(node)) {
+                    return false;
+                }
+                if (nodes.isEmpty()) {
+                    tree.remove(node.key);
+                }
+            }
+            size--;
+            if (tree != null && size <= UNTREEIFY_THRESHOLD) {
+                untreeify();
+            }
+            return true;
+        }
+
+        /** Move every node from the list into a tree */
+        private void treeify() {
+            tree = new TreeMap<>(KEY_ORDER);
+            for (Node node : list) {
+                tree.computeIfAbsent(node.key, k -> new ArrayList<>(1)).add(node);
+            }
+            list = null;
+        }
+
+        /** Move every node from the tree back into a list */
+        private void untreeify() {
+            list = new ArrayList<>(TREEIFY_THRESHOLD);
+            for (List<Node> nodes : tree.values()) {
+                list.addAll(nodes);
+            }
+            tree = null;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Iterates over the list, or over the tree in key order.
+         * Removing through the iterator never converts the bucket, so
+         * that the iteration itself is not disturbed.
+         */
+        @Override
+        public Iterator<Node> iterator() {
+            return new Iterator<Node>() {
+                private final Iterator<List<Node>> entries = tree == null
+                        ? Collections.singletonList(list).iterator()
+                        : tree.values().iterator();
+                private Iterator<Node> current = Collections.emptyIterator();
+                private List<Node> currentNodes;
+                // hasNext() may move on to the next entry before remove()
+                private Iterator<Node> lastIter;
+                private List<Node> lastNodes;
+
+                @Override
+                public boolean hasNext() {
+                    while (!current.hasNext() && entries.hasNext()) {
+                        currentNodes = entries.next();
+                        current = currentNodes.iterator();
+                    }
+                    return current.hasNext();
+                }
+
+                @Override
+                public Node next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    lastIter = current;
+                    lastNodes = currentNodes;
+                    return current.next();
+                }
+
+                @Override
+                public void remove() {
+                    if (lastIter == null) {
+                        throw new IllegalStateException();
+                    }
+                    lastIter.remove();
+                    size--;
+                    // drop a tree entry whose last node is gone, unless
+                    // hasNext() already moved entries past it; an empty
+                    // entry left behind is harmless to find() and add()
+                    if (tree != null && lastNodes.isEmpty() && lastNodes == currentNodes) {
+                        entries.remove();
+                    }
+                    lastIter = null;
+                }
+            };
+        }
+    }
+}
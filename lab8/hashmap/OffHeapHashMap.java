@@ -0,0 +1,506 @@
+package hashmap;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ *  A hash table-backed Map implementation whose keys and values live in
+ *  direct ByteBuffers outside the Java heap. Every entry is serialized
+ *  into one record [key length][value length][key bytes][value bytes],
+ *  appended to the current chunk of off-heap memory. The only things kept
+ *  on the heap are two parallel arrays, the address and the hash of each
+ *  record, probed linearly like MyHashMapOA, so a map of any size is a
+ *  handful of objects to the garbage collector, and its size is bounded by
+ *  -XX:MaxDirectMemorySize rather than by the heap.
+ *  Keys are hashed and compared by their serialized bytes. Replacing a
+ *  value with one of a different length, or removing a key, leaves a dead
+ *  record behind; once dead bytes outweigh live ones the live records are
+ *  copied into fresh chunks.
+ *  get() deserializes a new value object on every call.
+ *  Assumes null keys will never be inserted.
+ */
+public class OffHeapHashMap<K, V> implements Map61B<K, V> {
+
+    private static final int DEFAULT_CHUNK_SIZE = 64 << 20;
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final double LOAD_FACTOR = 0.75;
+    private static final int HEADER = 8;  // key length and value length
+    private static final int NULL_VALUE = -1;  // value length of a null value
+
+    private final Serializer<K> keySerializer;
+    private final Serializer<V> valueSerializer;
+    private final int chunkSize;
+
+    /* Off-heap records */
+    private List<ByteBuffer> chunks = new ArrayList<>();
+    private ByteBuffer tail;  // last chunk, records are appended at tailPos
+    private int tailPos;
+    private long liveBytes;
+    private long deadBytes;
+
+    /* On-heap index */
+    private long[] addresses;  // (chunk + 1) << 32 | offset of each record, 0 if empty
+    private int[] hashes;
+    private int mask;
+    private int threshold;
+    private int size;
+
+    /** Serialized key, followed by the serialized value while putting */
+    private ByteBuffer scratch = ByteBuffer.allocate(256);
+
+    /** Creates a map that allocates off-heap memory 64 MB at a time */
+    public OffHeapHashMap(Serializer<K> keySerializer, Serializer<V> valueSerializer) {
+        this(keySerializer, valueSerializer, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Creates a map that allocates off-heap memory chunkSize bytes at a
+     * time. A single record must fit in one chunk.
+     * @param keySerializer turns keys into bytes and back
+     * @param valueSerializer turns values into bytes and back
+     * @param chunkSize bytes per direct buffer
+     */
+    public OffHeapHashMap(Serializer<K> keySerializer, Serializer<V> valueSerializer,
+                          int chunkSize) {
+        if (chunkSize < HEADER) {
+            throw new IllegalArgumentException("chunkSize must be at least " + HEADER);
+        }
+        this.keySerializer = keySerializer;
+        this.valueSerializer = valueSerializer;
+        this.chunkSize = chunkSize;
+        createIndex(DEFAULT_CAPACITY);
+    }
+
+    private void createIndex(int capacity) {
+        addresses = new long[capacity];
+        hashes = new int[capacity];
+        mask = capacity - 1;
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    /** Remove all mappings from map, and release the off-heap chunks to the GC */
+    @Override
+    public void clear() {
+        chunks = new ArrayList<>();
+        tail = null;
+        tailPos = 0;
+        liveBytes = 0;
+        deadBytes = 0;
+        createIndex(DEFAULT_CAPACITY);
+        size = 0;
+    }
+
+    /* Addresses */
+
+    private ByteBuffer chunkOf(long address) {
+        return chunks.get((int) (address >>> 32) - 1);
+    }
+
+    private static int offsetOf(long address) {
+        return (int) address;
+    }
+
+    /** Returns the length in bytes of the record at address */
+    private int recordLength(long address) {
+        ByteBuffer chunk = chunkOf(address);
+        int offset = offsetOf(address);
+        return HEADER + chunk.getInt(offset) + Math.max(0, chunk.getInt(offset + 4));
+    }
+
+    /* Serialization into scratch */
+
+    /** Serializes key into the start of scratch and returns its length */
+    private int serializeKey(K key) {
+        while (true) {
+            scratch.clear();
+            try {
+                keySerializer.write(key, scratch);
+                return scratch.position();
+            } catch (BufferOverflowException e) {
+                scratch = ByteBuffer.allocate(scratch.capacity() * 2);
+            }
+        }
+    }
+
+    /**
+     * Serializes value into scratch right after the keyLength bytes of
+     * the key and returns its length, or NULL_VALUE for null
+     */
+    private int serializeValue(V value, int keyLength) {
+        if (value == null) {
+            return NULL_VALUE;
+        }
+        while (true) {
+            scratch.clear().position(keyLength);
+            try {
+                valueSerializer.write(value, scratch);
+                return scratch.position() - keyLength;
+            } catch (BufferOverflowException e) {
+                // keep the key when growing
+                ByteBuffer bigger = ByteBuffer.allocate(scratch.capacity() * 2);
+                scratch.clear().limit(keyLength);
+                bigger.put(scratch);
+                scratch = bigger;
+            }
+        }
+    }
+
+    /** Hashes the first length bytes of scratch */
+    private int hashScratch(int length) {
+        return hashBytes(scratch, 0, length);
+    }
+
+    /**
+     * Hashes length bytes of buf from offset, eight at a time, and spreads
+     * the high bits into the low bits used by a mask. Depends only on the
+     * bytes, so MappedSnapshot stores these hashes in its files.
+     */
+    static int hashBytes(ByteBuffer buf, int offset, int length) {
+        long h = length;
+        int i = 0;
+        for (; i + 8 <= length; i += 8) {
+            h = (h ^ buf.getLong(offset + i)) * 0x9E3779B97F4A7C15L;
+            h ^= h >>> 29;
+        }
+        for (; i < length; i++) {
+            h = (h ^ buf.get(offset + i)) * 0x9E3779B97F4A7C15L;
+        }
+        int x = (int) (h ^ (h >>> 32));
+        return x ^ (x >>> 16);
+    }
+
+    /** Returns true if the record at address holds the key in scratch */
+    private boolean keyEquals(long address, int keyLength) {
+        ByteBuffer chunk = chunkOf(address);
+        int offset = offsetOf(address);
+        if (chunk.getInt(offset) != keyLength) {
+            return false;
+        }
+        int start = offset + HEADER;
+        int i = 0;
+        for (; i + 8 <= keyLength; i += 8) {
+            if (chunk.getLong(start + i) != scratch.getLong(i)) {
+                return false;
+            }
+        }
+        for (; i < keyLength; i++) {
+            if (chunk.get(start + i) != scratch.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Find the slot of the key in scratch
+     * @return the slot holding the key, or ~slot of the empty slot that
+     *         ends its probe sequence if the key is not in map
+     */
+    private int indexOf(int hash, int keyLength) {
+        int i = hash & mask;
+        while (addresses[i] != 0) {
+            if (hashes[i] == hash && keyEquals(addresses[i], keyLength)) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return ~i;
+    }
+
+    /** Deserializes length bytes at offset of chunk */
+    private static <T> T readAt(ByteBuffer chunk, int offset, int length, Serializer<T> s) {
+        chunk.limit(offset + length).position(offset);
+        T t = s.read(chunk);
+        chunk.clear();
+        return t;
+    }
+
+    private K readKey(long address) {
+        ByteBuffer chunk = chunkOf(address);
+        int offset = offsetOf(address);
+        return readAt(chunk, offset + HEADER, chunk.getInt(offset), keySerializer);
+    }
+
+    private V readValue(long address) {
+        ByteBuffer chunk = chunkOf(address);
+        int offset = offsetOf(address);
+        int valueLength = chunk.getInt(offset + 4);
+        if (valueLength == NULL_VALUE) {
+            return null;
+        }
+        return readAt(chunk, offset + HEADER + chunk.getInt(offset), valueLength,
+                valueSerializer);
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        int keyLength = serializeKey(key);
+        return indexOf(hashScratch(keyLength), keyLength) >= 0;
+    }
+
+    @Override
+    public V get(K key) {
+        int keyLength = serializeKey(key);
+        int i = indexOf(hashScratch(keyLength), keyLength);
+        return i < 0 ? null : readValue(addresses[i]);
+    }
+
+    /**
+     * @return the number of keys in map
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Add new key-value pair to map
+     * @param key key to be added
+     * @param value value to be added
+     */
+    @Override
+    public void put(K key, V value) {
+        int keyLength = serializeKey(key);
+        int hash = hashScratch(keyLength);
+        int valueLength = serializeValue(value, keyLength);
+        int i = indexOf(hash, keyLength);
+        if (i >= 0) {
+            long address = addresses[i];
+            ByteBuffer chunk = chunkOf(address);
+            int offset = offsetOf(address);
+            if (chunk.getInt(offset + 4) == valueLength) {
+                // same length, overwrite the value where it is
+                copyFromScratch(chunk, offset + HEADER + keyLength, keyLength,
+                        Math.max(0, valueLength));
+                return;
+            }
+            int dead = recordLength(address);
+            addresses[i] = append(keyLength, valueLength);
+            deadBytes += dead;
+            liveBytes -= dead;
+            compactIfSparse();
+            return;
+        }
+        if (size + 1 > threshold) {
+            resizeIndex(addresses.length * 2);
+            i = indexOf(hash, keyLength);
+        }
+        i = ~i;
+        addresses[i] = append(keyLength, valueLength);
+        hashes[i] = hash;
+        size++;
+    }
+
+    /** Copies length bytes of scratch from from to offset of chunk */
+    private void copyFromScratch(ByteBuffer chunk, int offset, int from, int length) {
+        scratch.limit(from + length).position(from);
+        chunk.position(offset);
+        chunk.put(scratch);
+        chunk.clear();
+        scratch.clear();
+    }
+
+    /**
+     * Appends the key and value in scratch as a new record
+     * @return the address of the record
+     */
+    private long append(int keyLength, int valueLength) {
+        int length = HEADER + keyLength + Math.max(0, valueLength);
+        if (length > chunkSize) {
+            throw new IllegalArgumentException("record of " + length
+                    + " bytes does not fit in a chunk of " + chunkSize);
+        }
+        if (tail == null || tailPos + length > chunkSize) {
+            tail = ByteBuffer.allocateDirect(chunkSize);
+            chunks.add(tail);
+            tailPos = 0;
+        }
+        tail.putInt(tailPos, keyLength);
+        tail.putInt(tailPos + 4, valueLength);
+        copyFromScratch(tail, tailPos + HEADER, 0, length - HEADER);
+        long address = ((long) chunks.size() << 32) | tailPos;
+        tailPos += length;
+        liveBytes += length;
+        return address;
+    }
+
+    /**
+     * Rehash the index into arrays of the given length. Hashes are kept
+     * in the index, so no record is read.
+     */
+    private void resizeIndex(int capacity) {
+        long[] oldAddresses = addresses;
+        int[] oldHashes = hashes;
+        createIndex(capacity);
+        for (int j = 0; j < oldAddresses.length; j++) {
+            if (oldAddresses[j] == 0) {
+                continue;
+            }
+            int i = oldHashes[j] & mask;
+            while (addresses[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            addresses[i] = oldAddresses[j];
+            hashes[i] = oldHashes[j];
+        }
+    }
+
+    /**
+     * Copy every live record into fresh chunks once dead records take
+     * more space than live ones, and at least a whole chunk
+     */
+    private void compactIfSparse() {
+        if (deadBytes <= liveBytes || deadBytes < chunkSize) {
+            return;
+        }
+        List<ByteBuffer> oldChunks = chunks;
+        chunks = new ArrayList<>();
+        tail = null;
+        liveBytes = 0;
+        deadBytes = 0;
+        for (int i = 0; i < addresses.length; i++) {
+            if (addresses[i] == 0) {
+                continue;
+            }
+            ByteBuffer from = oldChunks.get((int) (addresses[i] >>> 32) - 1);
+            int offset = offsetOf(addresses[i]);
+            int length = HEADER + from.getInt(offset) + Math.max(0, from.getInt(offset + 4));
+            if (tail == null || tailPos + length > chunkSize) {
+                tail = ByteBuffer.allocateDirect(chunkSize);
+                chunks.add(tail);
+                tailPos = 0;
+            }
+            from.limit(offset + length).position(offset);
+            tail.position(tailPos);
+            tail.put(from);
+            from.clear();
+            tail.clear();
+            addresses[i] = ((long) chunks.size() << 32) | tailPos;
+            tailPos += length;
+            liveBytes += length;
+        }
+    }
+
+    /**
+     * Delete the entry at slot i, then shift later entries of the same
+     * probe run back into the hole, as in MyHashMapOA
+     */
+    private void deleteAt(int i) {
+        int dead = recordLength(addresses[i]);
+        deadBytes += dead;
+        liveBytes -= dead;
+        int hole = i;
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            if (addresses[j] == 0) {
+                break;
+            }
+            int home = hashes[j] & mask;
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                addresses[hole] = addresses[j];
+                hashes[hole] = hashes[j];
+                hole = j;
+            }
+        }
+        addresses[hole] = 0;
+        size--;
+        compactIfSparse();
+    }
+
+    @Override
+    public V remove(K key) {
+        int keyLength = serializeKey(key);
+        int i = indexOf(hashScratch(keyLength), keyLength);
+        if (i < 0) {
+            return null;
+        }
+        V value = readValue(addresses[i]);
+        deleteAt(i);
+        return value;
+    }
+
+    @Override
+    public V remove(K key, V value) {
+        int keyLength = serializeKey(key);
+        int i = indexOf(hashScratch(keyLength), keyLength);
+        if (i < 0) {
+            return null;
+        }
+        V current = readValue(addresses[i]);
+        if (current == null || !current.equals(value)) {
+            return null;
+        }
+        deleteAt(i);
+        return current;
+    }
+
+    /** Returns the bytes of off-heap memory allocated, including free space */
+    public long offHeapBytes() {
+        return (long) chunks.size() * chunkSize;
+    }
+
+    /** Returns the bytes of off-heap memory held by live records */
+    public long liveBytes() {
+        return liveBytes;
+    }
+
+    /** Returns a Set view of the keys contained in this map. */
+    @Override
+    public Set<K> keySet() {
+        return new AbstractSet<K>() {
+            @Override
+            public Iterator<K> iterator() {
+                return OffHeapHashMap.this.iterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public boolean contains(Object o) {
+                return o != null && containsKey((K) o);
+            }
+        };
+    }
+
+    /** Iterates over keys, deserializing each one as it is returned */
+    @Override
+    public Iterator<K> iterator() {
+        return new Iterator<K>() {
+            private int next = advance(0);
+
+            /** Returns the first occupied slot at or after i. */
+            private int advance(int i) {
+                while (i < addresses.length && addresses[i] == 0) {
+                    i++;
+                }
+                return i;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next < addresses.length;
+            }
+
+            @Override
+            public K next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                K key = readKey(addresses[next]);
+                next = advance(next + 1);
+                return key;
+            }
+        };
+    }
+}
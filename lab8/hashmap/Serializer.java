@@ -0,0 +1,108 @@
+package hashmap;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+
+/**
+ *  Turns keys or values of type T into bytes and back, for maps that keep
+ *  their entries outside the Java heap (see OffHeapHashMap).
+ *  Two keys are treated as equal exactly when their bytes are equal.
+ *  Serializers may keep scratch state, so every map needs its own
+ *  instance; use the factory methods rather than sharing one.
+ */
+public interface Serializer<T> {
+
+    /**
+     * Writes t at the position of out and advances the position.
+     * Throws BufferOverflowException if out has too little room left,
+     * in which case the caller retries with a larger buffer.
+     */
+    void write(T t, ByteBuffer out);
+
+    /** Reads a T from the bytes between the position and limit of in */
+    T read(ByteBuffer in);
+
+    /** Returns a serializer that stores Strings as UTF-8 */
+    static Serializer<String> string() {
+        return new Serializer<String>() {
+            private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+            private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder();
+
+            @Override
+            public void write(String s, ByteBuffer out) {
+                encoder.reset();
+                CoderResult result = encoder.encode(CharBuffer.wrap(s), out, true);
+                if (result.isOverflow()) {
+                    throw new BufferOverflowException();
+                } else if (result.isError()) {
+                    throw new IllegalArgumentException("not valid UTF-16: " + result);
+                }
+            }
+
+            @Override
+            public String read(ByteBuffer in) {
+                try {
+                    return decoder.decode(in).toString();
+                } catch (CharacterCodingException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        };
+    }
+
+    /** Returns a serializer that stores Integers as 4 bytes */
+    static Serializer<Integer> integer() {
+        return new Serializer<Integer>() {
+            @Override
+            public void write(Integer i, ByteBuffer out) {
+                out.putInt(i);
+            }
+
+            @Override
+            public Integer read(ByteBuffer in) {
+                return in.getInt();
+            }
+        };
+    }
+
+    /** Returns a serializer that stores Longs as 8 bytes */
+    static Serializer<Long> longs() {
+        return new Serializer<Long>() {
+            @Override
+            public void write(Long l, ByteBuffer out) {
+                out.putLong(l);
+            }
+
+            @Override
+            public Long read(ByteBuffer in) {
+                return in.getLong();
+            }
+        };
+    }
+
+    /**
+     * Returns a serializer that stores byte arrays as they are, so that
+     * byte[] keys are compared by content rather than by identity
+     */
+    static Serializer<byte[]> bytes() {
+        return new Serializer<byte[]>() {
+            @Override
+            public void write(byte[] b, ByteBuffer out) {
+                out.put(b);
+            }
+
+            @Override
+            public byte[] read(ByteBuffer in) {
+                byte[] b = new byte[in.remaining()];
+                in.get(b);
+                return b;
+            }
+        };
+    }
+}
@@ -0,0 +1,93 @@
+package hashmap;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/** Tests of the bounded cache and its eviction policies. */
+public class TestBoundedCache {
+
+    @Test
+    public void lruTest() {
+        BoundedCache<String, Integer> c = new BoundedCache<>(2);
+        c.put("a", 1);
+        c.put("b", 2);
+        assertEquals(1, c.get("a").intValue());  // b is now least recent
+        c.put("c", 3);
+        assertEquals(2, c.size());
+        assertTrue(c.containsKey("a"));
+        assertFalse(c.containsKey("b"));
+        assertNull(c.get("b"));
+        assertEquals(1, c.hitCount());
+        assertEquals(1, c.missCount());
+        assertEquals(1, c.evictionCount());
+        assertEquals(0.5, c.hitRatio(), 1e-9);
+
+        assertEquals(3, c.remove("c").intValue());
+        c.put("d", 4);
+        assertEquals(1, c.evictionCount());
+        assertEquals(2, c.keySet().size());
+    }
+
+    @Test
+    public void lfuTest() {
+        BoundedCache<String, Integer> c = new BoundedCache<>(2, LfuPolicy::new);
+        c.put("a", 1);
+        c.put("b", 2);
+        c.get("a");
+        c.get("a");
+        c.get("b");
+        c.put("c", 3);  // b has fewer uses than a
+        assertTrue(c.containsKey("a"));
+        assertFalse(c.containsKey("b"));
+        assertTrue(c.containsKey("c"));
+        // removing the least frequent key must not break the next eviction
+        c.remove("c");
+        c.put("d", 4);
+        c.put("e", 5);
+        assertTrue(c.containsKey("a"));
+        assertEquals(2, c.size());
+    }
+
+    /** A one-off scan must not flush keys that are used over and over. */
+    @Test
+    public void windowTinyLfuTest() {
+        int capacity = 100;
+        BoundedCache<Integer, Integer> c =
+                new BoundedCache<>(capacity, WindowTinyLfuPolicy::new);
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < capacity / 2; i++) {
+                if (c.get(i) == null) {
+                    c.put(i, i);
+                }
+            }
+        }
+        for (int i = 1000; i < 1000 + 3 * capacity; i++) {
+            if (c.get(i) == null) {
+                c.put(i, i);
+            }
+        }
+        assertEquals(capacity, c.size());
+        for (int i = 0; i < capacity / 2; i++) {
+            assertTrue(c.containsKey(i));
+        }
+        c.clear();
+        assertEquals(0, c.size());
+    }
+
+    /** The cache, not the policy, has the last word on capacity. */
+    @Test
+    public void capacityTest() {
+        BoundedCache<Integer, Integer> c = new BoundedCache<>(2, cap -> new LruPolicy<>(10 * cap));
+        c.put(1, 1);
+        c.put(2, 2);
+        try {
+            c.put(3, 3);
+            fail();
+        } catch (IllegalStateException e) {
+            // the policy is too large for the cache
+        }
+        assertEquals(2, c.size());
+        assertFalse(c.containsKey(3));
+        assertEquals(2, c.capacity());
+    }
+}
@@ -0,0 +1,76 @@
+package hashmap;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+/** Tests of the lock-striped concurrent hash map. */
+public class TestConcurrentMyHashMap {
+
+    @Test
+    public void sanityTest() {
+        ConcurrentMyHashMap<String, Integer> b = new ConcurrentMyHashMap<>(1, 0.75, 1);
+        assertFalse(b.containsKey("hi"));
+        for (int i = 0; i < 455; i++) {
+            b.put("hi" + i, i);
+        }
+        assertEquals(455, b.size());
+        b.put("hi0", 100);
+        assertEquals(455, b.size());
+        assertEquals(100, b.get("hi0").intValue());
+        assertNull(b.remove("hi1", 2));
+        assertEquals(1, b.remove("hi1", 1).intValue());
+        assertEquals(2, b.remove("hi2").intValue());
+        assertFalse(b.containsKey("hi2"));
+        assertEquals(453, b.keySet().size());
+
+        Iterator<String> iter = b.iterator();
+        while (iter.hasNext()) {
+            iter.next();
+            iter.remove();
+        }
+        assertEquals(0, b.size());
+        b.put("hi", 1);
+        b.clear();
+        assertFalse(b.containsKey("hi"));
+    }
+
+    /** Threads writing and removing disjoint keys must not lose any update. */
+    @Test
+    public void concurrentPutRemoveTest() throws InterruptedException {
+        ConcurrentMyHashMap<Integer, Integer> b = new ConcurrentMyHashMap<>();
+        int threads = 8;
+        int perThread = 20000;
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int base = t * perThread;
+            workers[t] = new Thread(() -> {
+                for (int i = base; i < base + perThread; i++) {
+                    b.put(i, i);
+                }
+                for (int i = base; i < base + perThread; i += 2) {
+                    b.remove(i);
+                }
+            });
+            workers[t].start();
+        }
+        // keep iterating while the map changes, which must never fail
+        while (workers[0].isAlive()) {
+            for (Integer key : b) {
+                assertNotNull(key);
+            }
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        assertEquals(threads * perThread / 2, b.size());
+        Set<Integer> keys = new HashSet<>(b.keySet());
+        for (int i = 0; i < threads * perThread; i++) {
+            assertEquals(i % 2 == 1, b.containsKey(i));
+            assertEquals(i % 2 == 1, keys.contains(i));
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package hashmap;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+
+/** Tests of writing snapshots and reading them back through a mapping. */
+public class TestMappedSnapshot {
+
+    @Test
+    public void roundTripTest() throws IOException {
+        MyHashMap<String, Integer> b = new MyHashMap<>();
+        for (int i = 0; i < 10000; i++) {
+            b.put("hi" + i, i);
+        }
+        b.put("null", null);
+        Path file = Files.createTempFile("snapshot", ".bin");
+        try {
+            MappedSnapshot.write(b, file, Serializer.string(), Serializer.integer());
+            MappedSnapshot<String, Integer> s =
+                    MappedSnapshot.open(file, Serializer.string(), Serializer.integer());
+            assertEquals(10001, s.size());
+            for (int i = 0; i < 10000; i++) {
+                assertEquals(i, s.get("hi" + i).intValue());
+            }
+            assertTrue(s.containsKey("null"));
+            assertNull(s.get("null"));
+            assertFalse(s.containsKey("hi10000"));
+            assertEquals(b.keySet(), new HashSet<>(s.keySet()));
+            try {
+                s.put("hi", 1);
+                fail();
+            } catch (UnsupportedOperationException e) {
+                // snapshots are read-only
+            }
+
+            MyHashMap<String, Integer> restored = s.toMyHashMap();
+            assertEquals(10001, restored.size());
+            for (int i = 0; i < 10000; i++) {
+                assertEquals(i, restored.get("hi" + i).intValue());
+            }
+            // the restored map must behave like any other MyHashMap
+            restored.put("hi0", -1);
+            assertEquals(10001, restored.size());
+            assertEquals(-1, restored.remove("hi0").intValue());
+            assertFalse(restored.containsKey("hi0"));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /** With tiny regions, records must be placed so that none spans two mappings. */
+    @Test
+    public void smallRegionsTest() throws IOException {
+        MyHashMap<String, String> b = new MyHashMap<>();
+        for (int i = 0; i < 2000; i++) {
+            b.put("key" + i, "value".repeat(i % 7) + i);
+        }
+        Path file = Files.createTempFile("snapshot", ".bin");
+        try {
+            MappedSnapshot.write(b, file, Serializer.string(), Serializer.string(), 10);
+            assertTrue(Files.size(file) > 1 << 14);
+            MappedSnapshot<String, String> s =
+                    MappedSnapshot.open(file, Serializer.string(), Serializer.string());
+            for (int i = 0; i < 2000; i++) {
+                assertEquals("value".repeat(i % 7) + i, s.get("key" + i));
+            }
+            Set<String> keys = new HashSet<>();
+            for (String key : s) {
+                keys.add(key);
+            }
+            assertEquals(2000, keys.size());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void emptyAndInvalidTest() throws IOException {
+        Path file = Files.createTempFile("snapshot", ".bin");
+        try {
+            MappedSnapshot.write(new MyHashMap<>(), file, Serializer.string(),
+                    Serializer.integer());
+            MappedSnapshot<String, Integer> s =
+                    MappedSnapshot.open(file, Serializer.string(), Serializer.integer());
+            assertEquals(0, s.size());
+            assertNull(s.get("hi"));
+            assertFalse(s.iterator().hasNext());
+
+            Files.write(file, "not a snapshot at all, just some text".getBytes());
+            try {
+                MappedSnapshot.open(file, Serializer.string(), Serializer.integer());
+                fail();
+            } catch (IOException e) {
+                // bad magic number
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /** byte[] keys hash by identity, so a reloaded snapshot must find them by content. */
+    @Test
+    public void byteArrayKeysTest() throws IOException {
+        MyHashMap<byte[], String> b = new MyHashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            b.put(new byte[] {(byte) i, (byte) (i >> 8), 7}, "v" + i);
+        }
+        Path file = Files.createTempFile("snapshot", ".bin");
+        try {
+            MappedSnapshot.write(b, file, Serializer.bytes(), Serializer.string());
+            MappedSnapshot<byte[], String> s =
+                    MappedSnapshot.open(file, Serializer.bytes(), Serializer.string());
+            for (int i = 0; i < 1000; i++) {
+                assertEquals("v" + i, s.get(new byte[] {(byte) i, (byte) (i >> 8), 7}));
+            }
+            assertFalse(s.containsKey(new byte[] {0, 0, 8}));
+
+            // keys loaded from the file are new arrays, found by their own identity
+            MyHashMap<byte[], String> restored = s.toMyHashMap();
+            assertEquals(1000, restored.size());
+            for (byte[] key : restored) {
+                assertEquals(s.get(key), restored.get(key));
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
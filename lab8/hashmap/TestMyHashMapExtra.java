@@ -3,6 +3,10 @@ package hashmap;
 import static org.junit.Assert.*;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Set;
+
 /** Tests of optional parts of lab 8. */
 public class TestMyHashMapExtra {
 
@@ -49,4 +53,289 @@ public class TestMyHashMapExtra {
         assertTrue(q.containsKey("b"));
         assertTrue(q.containsKey("f"));
     }
+
+    /**
+     * keySet() is a live view of the map, and removing through its
+     * iterator removes the mapping
+     */
+    @Test
+    public void testKeySetView() {
+        testKeySetView(new MyHashMap<>());
+        testKeySetView(new MyHashMapALBuckets<>());
+        testKeySetView(new MyHashMapLLBuckets<>());
+        testKeySetView(new MyHashMapTSBuckets<>());
+        testKeySetView(new MyHashMapHSBuckets<>());
+        testKeySetView(new MyHashMapPQBuckets<>());
+        testKeySetView(new MyHashMapTreeBuckets<>());
+    }
+
+    public static void testKeySetView(MyHashMap<String, Integer> b) {
+        Set<String> keySet = b.keySet();
+        for (int i = 0; i < 100; i++) {
+            b.put("hi" + i, i);
+        }
+        assertEquals(100, keySet.size());
+        assertTrue(keySet.contains("hi42"));
+
+        Iterator<String> iter = keySet.iterator();
+        while (iter.hasNext()) {
+            String key = iter.next();
+            if (b.get(key) % 2 == 0) {
+                iter.remove();
+            }
+        }
+        assertEquals(50, b.size());
+        assertFalse(b.containsKey("hi42"));
+        assertTrue(b.containsKey("hi43"));
+
+        assertTrue(keySet.remove("hi43"));
+        assertFalse(b.containsKey("hi43"));
+        assertEquals(49, keySet.size());
+    }
+
+    /** Maps that resize incrementally must behave like ones that do not. */
+    @Test
+    public void testIncrementalResize() {
+        TestMyHashMap.sanityClearTest(new MyHashMap<>(16, 0.75, true));
+        TestMyHashMap.sanitySizeTest(new MyHashMap<>(16, 0.75, true));
+        TestMyHashMap.sanityKeySetTest(new MyHashMap<>(16, 0.75, true));
+        TestMyHashMap.functionalityTest(new MyHashMap<>(16, 0.75, true),
+                new MyHashMap<>(16, 0.75, true));
+        testKeySetView(new MyHashMap<>(16, 0.75, true));
+
+        MyHashMap<Integer, Integer> b = new MyHashMap<>(1, 0.75, true);
+        for (int i = 0; i < 10000; i++) {
+            b.put(i, i);
+            // keys put while a resize is running must be found at once
+            assertEquals(i, b.get(i).intValue());
+        }
+        for (int i = 0; i < 10000; i += 2) {
+            assertEquals(i, b.remove(i).intValue());
+        }
+        assertEquals(5000, b.size());
+        for (int i = 0; i < 10000; i++) {
+            assertEquals(i % 2 == 1, b.containsKey(i));
+        }
+    }
+
+    /** Shrinking on remove() and trimToSize() must keep every remaining key. */
+    @Test
+    public void testShrink() {
+        MyHashMap<Integer, Integer> b = new MyHashMap<>(16, 0.75, 0.125);
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 10000; i++) {
+                b.put(i, i);
+            }
+            for (int i = 0; i < 10000; i++) {
+                if (i % 100 != 0) {
+                    assertEquals(i, b.remove(i).intValue());
+                }
+            }
+            assertEquals(100, b.size());
+            for (int i = 0; i < 10000; i += 100) {
+                assertEquals(i, b.get(i).intValue());
+            }
+        }
+
+        MyHashMap<Integer, Integer> c = new MyHashMap<>();
+        for (int i = 0; i < 10000; i++) {
+            c.put(i, i);
+        }
+        for (int i = 10; i < 10000; i++) {
+            c.remove(i, i);
+        }
+        c.trimToSize();
+        assertEquals(10, c.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i, c.get(i).intValue());
+        }
+        c.put(10, 10);
+        assertEquals(11, c.size());
+    }
+
+    /** Key whose hashCode() always collides and which is not Comparable. */
+    private static class CollidingKey {
+        private final int id;
+
+        CollidingKey(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof CollidingKey && ((CollidingKey) o).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return 42;
+        }
+    }
+
+    /**
+     * Buckets that turn into trees and back must keep every key,
+     * whether or not the colliding keys are Comparable
+     */
+    @Test
+    public void testTreeifyingBuckets() {
+        MyHashMapTreeBuckets<String, Integer> b = new MyHashMapTreeBuckets<>();
+        // "Aa" and "BB" have the same hashCode, so do all their concatenations
+        String[] keys = new String[256];
+        for (int i = 0; i < keys.length; i++) {
+            StringBuilder sb = new StringBuilder();
+            for (int bit = 0; bit < 8; bit++) {
+                sb.append(((i >> bit) & 1) == 0 ? "Aa" : "BB");
+            }
+            keys[i] = sb.toString();
+            b.put(keys[i], i);
+        }
+        assertEquals(256, b.size());
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(i, b.get(keys[i]).intValue());
+        }
+        // shrink the bucket back into a list
+        for (int i = 0; i < 250; i++) {
+            assertEquals(i, b.remove(keys[i]).intValue());
+        }
+        assertEquals(6, b.size());
+        for (int i = 250; i < keys.length; i++) {
+            assertTrue(b.containsKey(keys[i]));
+        }
+
+        MyHashMapTreeBuckets<CollidingKey, Integer> c = new MyHashMapTreeBuckets<>();
+        for (int i = 0; i < 100; i++) {
+            c.put(new CollidingKey(i), i);
+        }
+        Iterator<CollidingKey> iter = c.iterator();
+        while (iter.hasNext()) {
+            if (iter.next().id % 2 == 0) {
+                iter.remove();
+            }
+        }
+        assertEquals(50, c.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i % 2 == 1, c.containsKey(new CollidingKey(i)));
+        }
+    }
+
+    /**
+     * Keys of different classes that share a hash code must all stay
+     * reachable once their bucket is a tree: "Aa", "BB" and 2112 all hash
+     * to 2112
+     */
+    @Test
+    public void testTreeifyingMixedClassKeys() {
+        MyHashMapTreeBuckets<Object, Integer> b = new MyHashMapTreeBuckets<>(1, 1000.0);
+        b.put("Aa", 0);
+        b.put(2112, 1);
+        b.put("BB", 2);
+        for (int i = 2113; i <= 2132; i++) {
+            b.put(i, i);
+        }
+        assertEquals(23, b.size());
+        assertEquals(1, b.get(2112).intValue());
+        assertTrue(b.containsKey(2112));
+        assertEquals(0, b.get("Aa").intValue());
+        assertEquals(2, b.get("BB").intValue());
+        b.put(2112, -1);
+        assertEquals(23, b.size());
+        int count = 0;
+        for (Object key : b) {
+            if (key.equals(2112)) {
+                count++;
+            }
+        }
+        assertEquals(1, count);
+        assertEquals(-1, b.remove(2112).intValue());
+        assertFalse(b.containsKey(2112));
+        assertEquals(22, b.size());
+    }
+
+    /** Bulk operations must match the single-key operations they replace. */
+    @Test
+    public void testBulkOperations() {
+        testBulkOperations(new MyHashMap<>());
+        testBulkOperations(new MyHashMapOA<>());
+        testBulkOperations(new ULLMap<>());
+    }
+
+    public static void testBulkOperations(Map61B<String, Integer> b) {
+        String[] keys = new String[1000];
+        Integer[] values = new Integer[1000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = "hi" + i;
+            values[i] = i;
+        }
+        b.put("hi0", -1);
+        b.putAll(keys, values);
+        assertEquals(1000, b.size());
+
+        MyHashMap<String, Integer> copy = new MyHashMap<>();
+        copy.putAll(b);
+        assertEquals(1000, copy.size());
+
+        Integer[] out = new Integer[1001];
+        String[] lookups = Arrays.copyOf(keys, 1001);
+        lookups[1000] = "missing";
+        copy.getAll(lookups, out);
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(i, out[i].intValue());
+        }
+        assertNull(out[1000]);
+
+        assertEquals(1000, copy.removeAll(lookups));
+        assertEquals(0, copy.size());
+    }
+
+    /** Stats must count gets and resizes only while enabled, and describe the buckets. */
+    @Test
+    public void testStats() {
+        MyHashMap<String, Integer> b = new MyHashMap<>();
+        for (int i = 0; i < 100; i++) {
+            b.put("hi" + i, i);
+        }
+        b.get("hi0");
+        MyHashMapStats before = b.stats();
+        assertEquals(0, before.hitCount());
+        assertEquals(0, before.resizeCount());
+
+        b.enableStats();
+        for (int i = 0; i < 1000; i++) {
+            b.put("hi" + i, i);
+        }
+        for (int i = 0; i < 1500; i++) {
+            b.get("hi" + i);
+        }
+        MyHashMapStats stats = b.stats();
+        assertEquals(1000, stats.hitCount());
+        assertEquals(500, stats.missCount());
+        assertEquals(3, stats.resizeCount());  // 256 -> 512 -> 1024 -> 2048
+        assertEquals(1000, stats.size());
+        assertEquals(2048, stats.tableSize());
+
+        int[] histogram = stats.bucketHistogram();
+        int buckets = 0;
+        int keys = 0;
+        for (int length = 0; length < histogram.length; length++) {
+            buckets += histogram[length];
+            keys += histogram[length] * length;
+        }
+        assertEquals(2048, buckets);
+        assertEquals(1000, keys);
+        assertTrue(histogram[histogram.length - 1] > 0);
+        assertEquals(histogram.length - 1, stats.maxChainLength());
+        assertTrue(stats.averageProbeLength() >= 1);
+
+        b.disableStats();
+        b.get("hi0");
+        assertEquals(1000, b.stats().hitCount());
+
+        // every key in one bucket shows up as one long chain
+        MyHashMap<CollidingKey, Integer> c = new MyHashMap<>();
+        for (int i = 0; i < 10; i++) {
+            c.put(new CollidingKey(i), i);
+        }
+        assertEquals(10, c.stats().maxChainLength());
+        assertEquals(5.5, c.stats().averageProbeLength(), 1e-9);
+    }
 }
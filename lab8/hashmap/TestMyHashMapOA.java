@@ -0,0 +1,79 @@
+package hashmap;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+/** Tests of the open-addressing hash map. */
+public class TestMyHashMapOA {
+
+    @Test
+    public void sanityTest() {
+        MyHashMapOA<String, Integer> b = new MyHashMapOA<>();
+        assertFalse(b.containsKey("hi"));
+        assertNull(b.get("hi"));
+        for (int i = 0; i < 455; i++) {
+            b.put("hi" + i, i);
+        }
+        assertEquals(455, b.size());
+        b.put("hi0", 100);
+        assertEquals(455, b.size());
+        assertEquals(100, b.get("hi0").intValue());
+
+        Set<String> keySet = b.keySet();
+        assertEquals(455, keySet.size());
+        assertTrue(keySet.contains("hi454"));
+
+        b.clear();
+        assertEquals(0, b.size());
+        assertFalse(b.containsKey("hi1"));
+    }
+
+    /** Keys sharing a hashCode() force long probe runs through remove(). */
+    @Test
+    public void removeCollidingKeysTest() {
+        MyHashMapOA<String, String> q = new MyHashMapOA<>();
+        // "Aa" and "BB" have the same hashCode, so do all their concatenations
+        String[] keys = {"AaAa", "AaBB", "BBAa", "BBBB", "c", "d"};
+        for (String key : keys) {
+            q.put(key, key);
+        }
+        assertEquals("AaBB", q.remove("AaBB"));
+        assertNull(q.remove("AaBB"));
+        assertNull(q.remove("BBAa", "wrong"));
+        assertEquals("BBAa", q.remove("BBAa", "BBAa"));
+        assertTrue(q.containsKey("AaAa"));
+        assertTrue(q.containsKey("BBBB"));
+        assertTrue(q.containsKey("c"));
+        assertTrue(q.containsKey("d"));
+        assertEquals(4, q.size());
+    }
+
+    /** Random puts and removes should agree with java.util.HashMap. */
+    @Test
+    public void randomizedTest() {
+        MyHashMapOA<Integer, Integer> oa = new MyHashMapOA<>(4);
+        HashMap<Integer, Integer> expected = new HashMap<>();
+        Random r = new Random(61);
+        for (int i = 0; i < 20000; i++) {
+            int key = r.nextInt(500);
+            if (r.nextBoolean()) {
+                oa.put(key, i);
+                expected.put(key, i);
+            } else {
+                assertEquals(expected.remove(key), oa.remove(key));
+            }
+            assertEquals(expected.size(), oa.size());
+        }
+        Set<Integer> seen = new HashSet<>();
+        for (int key : oa) {
+            assertEquals(expected.get(key), oa.get(key));
+            seen.add(key);
+        }
+        assertEquals(expected.keySet(), seen);
+    }
+}
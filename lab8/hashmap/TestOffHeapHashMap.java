@@ -0,0 +1,129 @@
+package hashmap;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+/** Tests of the off-heap hash map. */
+public class TestOffHeapHashMap {
+
+    @Test
+    public void sanityTest() {
+        OffHeapHashMap<String, Integer> b =
+                new OffHeapHashMap<>(Serializer.string(), Serializer.integer());
+        assertFalse(b.containsKey("hi"));
+        assertNull(b.get("hi"));
+        for (int i = 0; i < 455; i++) {
+            b.put("hi" + i, i);
+        }
+        assertEquals(455, b.size());
+        b.put("hi0", 100);
+        assertEquals(455, b.size());
+        assertEquals(100, b.get("hi0").intValue());
+        b.put("null", null);
+        assertTrue(b.containsKey("null"));
+        assertNull(b.get("null"));
+
+        Set<String> keys = new HashSet<>(b.keySet());
+        assertEquals(456, keys.size());
+        assertTrue(keys.contains("hi454"));
+
+        assertEquals(100, b.remove("hi0").intValue());
+        assertNull(b.remove("hi1", 2));
+        assertEquals(1, b.remove("hi1", 1).intValue());
+        assertEquals(454, b.size());
+        b.clear();
+        assertEquals(0, b.size());
+        assertEquals(0, b.offHeapBytes());
+        assertFalse(b.containsKey("hi2"));
+    }
+
+    /** byte[] keys must be compared by content, and long keys or values must grow scratch. */
+    @Test
+    public void byteArrayKeysTest() {
+        OffHeapHashMap<byte[], String> b =
+                new OffHeapHashMap<>(Serializer.bytes(), Serializer.string());
+        b.put(new byte[] {1, 2, 3}, "a");
+        assertEquals("a", b.get(new byte[] {1, 2, 3}));
+        assertNull(b.get(new byte[] {1, 2}));
+
+        byte[] big = new byte[5000];
+        big[4999] = 7;
+        String longValue = "x".repeat(3000) + "\u00e9\u4e2d";
+        b.put(big, longValue);
+        assertEquals(longValue, b.get(big.clone()));
+        big[4999] = 8;
+        assertFalse(b.containsKey(big));
+    }
+
+    /** Records must span many chunks, and compaction must keep every live entry. */
+    @Test
+    public void chunksAndCompactionTest() {
+        OffHeapHashMap<String, String> b =
+                new OffHeapHashMap<>(Serializer.string(), Serializer.string(), 1024);
+        for (int i = 0; i < 1000; i++) {
+            b.put("key" + i, "v" + i);
+        }
+        assertTrue(b.offHeapBytes() > 1024);
+        // values of a new length leave dead records behind
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 1000; i++) {
+                b.put("key" + i, "value" + round + "-" + i);
+            }
+        }
+        for (int i = 0; i < 500; i++) {
+            b.remove("key" + i);
+        }
+        assertEquals(500, b.size());
+        assertTrue(b.offHeapBytes() <= 3 * b.liveBytes() + 1024);
+        for (int i = 500; i < 1000; i++) {
+            assertEquals("value4-" + i, b.get("key" + i));
+        }
+        try {
+            b.put("huge", "x".repeat(2000));
+            fail();
+        } catch (IllegalArgumentException e) {
+            // a record must fit in one chunk
+        }
+        // a failed replace must leave the old record and the byte counts alone
+        long live = b.liveBytes();
+        try {
+            b.put("key999", "x".repeat(2000));
+            fail();
+        } catch (IllegalArgumentException e) {
+            // a record must fit in one chunk
+        }
+        assertEquals(live, b.liveBytes());
+        assertEquals("value4-999", b.get("key999"));
+    }
+
+    @Test
+    public void randomOperationsTest() {
+        OffHeapHashMap<Long, Long> b =
+                new OffHeapHashMap<>(Serializer.longs(), Serializer.longs(), 4096);
+        HashMap<Long, Long> expected = new HashMap<>();
+        Random r = new Random(61);
+        for (int i = 0; i < 20000; i++) {
+            long key = r.nextInt(2000);
+            if (r.nextBoolean()) {
+                b.put(key, (long) i);
+                expected.put(key, (long) i);
+            } else {
+                assertEquals(expected.remove(key), b.remove(key));
+            }
+        }
+        assertEquals(expected.size(), b.size());
+        for (long key = 0; key < 2000; key++) {
+            assertEquals(expected.get(key), b.get(key));
+        }
+        Set<Long> keys = new HashSet<>();
+        for (Long key : b) {
+            keys.add(key);
+        }
+        assertEquals(expected.keySet(), keys);
+    }
+}
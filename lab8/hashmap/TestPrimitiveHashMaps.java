@@ -0,0 +1,81 @@
+package hashmap;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Random;
+
+/** Tests of the primitive-specialized hash maps. */
+public class TestPrimitiveHashMaps {
+
+    /** Random puts, increments and removes should agree with java.util.HashMap. */
+    @Test
+    public void randomizedIntIntTest() {
+        IntIntHashMap map = new IntIntHashMap(4);
+        HashMap<Integer, Integer> expected = new HashMap<>();
+        Random r = new Random(61);
+        for (int i = 0; i < 20000; i++) {
+            // include key 0 and negative keys
+            int key = r.nextInt(500) - 100;
+            int op = r.nextInt(3);
+            if (op == 0) {
+                map.put(key, i);
+                expected.put(key, i);
+            } else if (op == 1) {
+                assertEquals(expected.merge(key, 3, Integer::sum).intValue(),
+                        map.increment(key, 3));
+            } else {
+                Integer old = expected.remove(key);
+                assertEquals(old == null ? 0 : old, map.remove(key));
+            }
+            assertEquals(expected.size(), map.size());
+            assertEquals(expected.containsKey(key), map.containsKey(key));
+        }
+        int[] keys = map.keys();
+        Arrays.sort(keys);
+        assertArrayEquals(expected.keySet().stream().mapToInt(k -> k).sorted().toArray(), keys);
+        for (int key : keys) {
+            assertEquals(expected.get(key).intValue(), map.get(key));
+        }
+        map.clear();
+        assertEquals(0, map.size());
+        assertFalse(map.containsKey(0));
+    }
+
+    @Test
+    public void longLongTest() {
+        LongLongHashMap map = new LongLongHashMap();
+        for (long i = 0; i < 1000; i++) {
+            map.put(i << 32, i);
+        }
+        assertEquals(1000, map.size());
+        assertEquals(7, map.get(7L << 32));
+        assertEquals(0, map.get(7));
+        assertEquals(5, map.increment(0, 5));
+        assertEquals(7, map.remove(7L << 32));
+        assertFalse(map.containsKey(7L << 32));
+        assertEquals(999, map.size());
+    }
+
+    @Test
+    public void intObjectTest() {
+        IntObjectHashMap<String> map = new IntObjectHashMap<>();
+        assertNull(map.get(0));
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, "v" + i);
+        }
+        assertEquals(1000, map.size());
+        assertEquals("v0", map.get(0));
+        assertEquals("v999", map.get(999));
+        assertEquals("v0", map.remove(0));
+        assertNull(map.remove(0));
+        assertEquals("v500", map.remove(500));
+        assertNull(map.get(500));
+        assertEquals(998, map.size());
+        for (int i = 1; i < 1000; i++) {
+            assertEquals(i != 500, map.containsKey(i));
+        }
+    }
+}
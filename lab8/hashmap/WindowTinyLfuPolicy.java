@@ -0,0 +1,155 @@
+package hashmap;
+
+import java.util.Arrays;
+
+/**
+ * W-TinyLFU eviction. New keys enter a small LRU window (1% of capacity).
+ * A key pushed out of the window competes with the least recently used
+ * key of the main area, and whichever was requested more often, as
+ * estimated by a count-min sketch, stays. The main area is a segmented
+ * LRU: keys hit again while on probation move to the protected segment
+ * (80% of the main area).
+ * @param <K> key of the cache
+ */
+public class WindowTinyLfuPolicy<K> implements EvictionPolicy<K> {
+    private final int windowCapacity;
+    private final int mainCapacity;
+    private final int protectedCapacity;
+    private final AccessOrderList<K> window = new AccessOrderList<>();
+    private final AccessOrderList<K> probation = new AccessOrderList<>();
+    private final AccessOrderList<K> protectedKeys = new AccessOrderList<>();
+    private final FrequencySketch sketch;
+
+    public WindowTinyLfuPolicy(int capacity) {
+        windowCapacity = Math.max(1, capacity / 100);
+        mainCapacity = Math.max(0, capacity - windowCapacity);
+        protectedCapacity = mainCapacity * 8 / 10;
+        sketch = new FrequencySketch(capacity);
+    }
+
+    @Override
+    public void recordAccess(K key) {
+        sketch.increment(key);
+        if (window.moveToFront(key) || protectedKeys.moveToFront(key)) {
+            return;
+        }
+        if (probation.remove(key)) {
+            protectedKeys.addFirst(key);
+            if (protectedKeys.size() > protectedCapacity) {
+                probation.addFirst(protectedKeys.removeLast());
+            }
+        }
+    }
+
+    @Override
+    public void recordMiss(K key) {
+        sketch.increment(key);
+    }
+
+    @Override
+    public K recordInsertion(K key) {
+        sketch.increment(key);
+        window.addFirst(key);
+        if (window.size() <= windowCapacity) {
+            return null;
+        }
+        K candidate = window.removeLast();
+        if (probation.size() + protectedKeys.size() < mainCapacity) {
+            probation.addFirst(candidate);
+            return null;
+        }
+        AccessOrderList<K> victimList = probation.size() > 0 ? probation : protectedKeys;
+        K victim = victimList.peekLast();
+        if (victim == null || sketch.frequency(candidate) <= sketch.frequency(victim)) {
+            return candidate;
+        }
+        victimList.remove(victim);
+        probation.addFirst(candidate);
+        return victim;
+    }
+
+    @Override
+    public void recordRemoval(K key) {
+        if (!window.remove(key) && !probation.remove(key)) {
+            protectedKeys.remove(key);
+        }
+    }
+
+    @Override
+    public void clear() {
+        window.clear();
+        probation.clear();
+        protectedKeys.clear();
+        sketch.clear();
+    }
+
+    /**
+     * Count-min sketch estimating how often each key was seen recently.
+     * Once as many increments as ten times the cache capacity have been
+     * recorded, every counter is halved so that old popularity fades.
+     */
+    private static class FrequencySketch {
+        private static final int DEPTH = 4;
+        private static final int MAX_COUNT = 15;
+        private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+        private final byte[][] counters;
+        private final int mask;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch(int capacity) {
+            // several counters per cached key keep collisions rare
+            int width = 16;
+            while (width < 8L * capacity) {
+                width <<= 1;
+            }
+            counters = new byte[DEPTH][width];
+            mask = width - 1;
+            sampleSize = 10 * Math.max(1, capacity);
+        }
+
+        private int indexOf(Object key, int row) {
+            int h = key.hashCode() * SEEDS[row];
+            return (h ^ (h >>> 16)) & mask;
+        }
+
+        void increment(Object key) {
+            boolean added = false;
+            for (int row = 0; row < DEPTH; row++) {
+                int i = indexOf(key, row);
+                if (counters[row][i] < MAX_COUNT) {
+                    counters[row][i]++;
+                    added = true;
+                }
+            }
+            if (added && ++additions == sampleSize) {
+                reset();
+            }
+        }
+
+        int frequency(Object key) {
+            int min = MAX_COUNT;
+            for (int row = 0; row < DEPTH; row++) {
+                min = Math.min(min, counters[row][indexOf(key, row)]);
+            }
+            return min;
+        }
+
+        /** Halves every counter */
+        private void reset() {
+            for (byte[] row : counters) {
+                for (int i = 0; i < row.length; i++) {
+                    row[i] >>= 1;
+                }
+            }
+            additions /= 2;
+        }
+
+        void clear() {
+            for (byte[] row : counters) {
+                Arrays.fill(row, (byte) 0);
+            }
+            additions = 0;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package jmh;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import hashmap.Map61B;
+import hashmap.MyHashMapALBuckets;
+import hashmap.MyHashMapHSBuckets;
+import hashmap.MyHashMapLLBuckets;
+import hashmap.MyHashMapOA;
+import hashmap.MyHashMapPQBuckets;
+import hashmap.MyHashMapTSBuckets;
+import hashmap.MyHashMapTreeBuckets;
+
+/**
+ * JMH version of speed.BucketsSpeedTest. Inserts and looks up N random
+ * Strings of length L in every bucket type, with forked JVMs, warmup
+ * iterations and dead-code protection through a Blackhole, so the numbers
+ * do not depend on JIT state left over from the previous map.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class BucketsBenchmark {
+
+    @Param({"1000", "100000"})
+    private int N;
+
+    @Param({"10", "100"})
+    private int L;
+
+    /** MyHashMapOA needs a load factor below 1 */
+    @Param({"0.5", "0.75"})
+    private double loadFactor;
+
+    @Param({"AL", "LL", "TS", "HS", "PQ", "Tree", "OA"})
+    private String buckets;
+
+    private String[] keys;
+    private String[] missingKeys;
+    private Map61B<String, Integer> filled;
+
+    /** Generates the keys once per trial so only map operations are timed */
+    @Setup(Level.Trial)
+    public void generateKeys() {
+        Random r = new Random(61);
+        keys = new String[N];
+        missingKeys = new String[N];
+        for (int i = 0; i < N; i++) {
+            keys[i] = randomString(r, L);
+            missingKeys[i] = randomString(r, L);
+        }
+        filled = createMap();
+        for (int i = 0; i < N; i++) {
+            filled.put(keys[i], i);
+        }
+    }
+
+    /** Returns an empty map of the bucket type under test */
+    private Map61B<String, Integer> createMap() {
+        switch (buckets) {
+            case "AL":
+                return new MyHashMapALBuckets<>(16, loadFactor);
+            case "LL":
+                return new MyHashMapLLBuckets<>(16, loadFactor);
+            case "TS":
+                return new MyHashMapTSBuckets<>(16, loadFactor);
+            case "HS":
+                return new MyHashMapHSBuckets<>(16, loadFactor);
+            case "PQ":
+                return new MyHashMapPQBuckets<>(16, loadFactor);
+            case "Tree":
+                return new MyHashMapTreeBuckets<>(16, loadFactor);
+            case "OA":
+                return new MyHashMapOA<>(16, loadFactor);
+            default:
+                throw new IllegalArgumentException("unknown bucket type " + buckets);
+        }
+    }
+
+    /** Returns a random lowercase String of the given length */
+    private static String randomString(Random r, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) (r.nextInt(26) + 'a');
+        }
+        return new String(chars);
+    }
+
+    /** Inserts all N keys into an empty map, including every resize */
+    @Benchmark
+    public Map61B<String, Integer> insert() {
+        Map61B<String, Integer> map = createMap();
+        for (int i = 0; i < N; i++) {
+            map.put(keys[i], i);
+        }
+        return map;
+    }
+
+    /** Looks up all N keys in a filled map */
+    @Benchmark
+    public void getHit(Blackhole bh) {
+        for (String key : keys) {
+            bh.consume(filled.get(key));
+        }
+    }
+
+    /** Looks up N keys that are not in a filled map */
+    @Benchmark
+    public void getMiss(Blackhole bh) {
+        for (String key : missingKeys) {
+            bh.consume(filled.get(key));
+        }
+    }
+}
@@ -3,6 +3,7 @@ package speed;
 import edu.princeton.cs.algs4.Stopwatch;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Scanner;
 
 import hashmap.Map61B;
@@ -11,11 +12,16 @@ import hashmap.MyHashMapLLBuckets;
 import hashmap.MyHashMapTSBuckets;
 import hashmap.MyHashMapHSBuckets;
 import hashmap.MyHashMapPQBuckets;
+import hashmap.MyHashMapOA;
+import hashmap.MyHashMapTreeBuckets;
 
 /** Performs a timing test on three different set implementations.
  *  @author Neil Kulkarni adapted from Josh Hug, Brendan Hu
  */
 public class BucketsSpeedTest {
+    /** Key lengths used when sweeping L */
+    private static final int[] SWEEP_LENGTHS = {1, 10, 100, 1000};
+
     /**
      * Requests user input and performs tests of three different set
      * implementations. ARGS is unused. 
@@ -42,6 +48,15 @@ public class BucketsSpeedTest {
             timeRandomMap61B(new MyHashMapTSBuckets<>(), N, L);
             timeRandomMap61B(new MyHashMapHSBuckets<>(), N, L);
             timeRandomMap61B(new MyHashMapPQBuckets<>(), N, L);
+            timeRandomMap61B(new MyHashMapTreeBuckets<>(), N, L);
+            timeRandomMap61B(new MyHashMapOA<>(), N, L);
+
+            System.out.print("\nWould you also like to sweep L over "
+                    + Arrays.toString(SWEEP_LENGTHS) + "? (y/n)");
+            String sweep = input.nextLine();
+            if (sweep.equalsIgnoreCase("y") || sweep.equalsIgnoreCase("yes")) {
+                sweepKeyLength(N);
+            }
 
             System.out.print("\nWould you like to try more timed-tests? (y/n)");
             repeat = input.nextLine();
@@ -49,6 +64,47 @@ public class BucketsSpeedTest {
         input.close();
     }
 
+    /**
+     * For each key length in SWEEP_LENGTHS, prints the time each map needs to
+     * put N random strings of that length and get each of them back. Keys are
+     * generated before timing starts, so only hashing, comparing and storing
+     * keys is measured.
+     */
+    public static void sweepKeyLength(int N) {
+        for (int L : SWEEP_LENGTHS) {
+            String[] keys = new String[N];
+            for (int i = 0; i < N; i++) {
+                keys[i] = StringUtils.randomString(L);
+            }
+            System.out.println("\nL = " + L + ":");
+            timeKeysMap61B(new MyHashMapALBuckets<>(), keys);
+            timeKeysMap61B(new MyHashMapLLBuckets<>(), keys);
+            timeKeysMap61B(new MyHashMapTSBuckets<>(), keys);
+            timeKeysMap61B(new MyHashMapHSBuckets<>(), keys);
+            timeKeysMap61B(new MyHashMapPQBuckets<>(), keys);
+            timeKeysMap61B(new MyHashMapTreeBuckets<>(), keys);
+            timeKeysMap61B(new MyHashMapOA<>(), keys);
+        }
+    }
+
+    /**
+     * Prints time needed to put every key into map and get it back
+     */
+    public static void timeKeysMap61B(Map61B<String, Integer> map, String[] keys) {
+        try {
+            Stopwatch sw = new Stopwatch();
+            for (int i = 0; i < keys.length; i++) {
+                map.put(keys[i], i);
+            }
+            for (String key : keys) {
+                map.get(key);
+            }
+            System.out.printf(map.getClass() + ": %.2f sec\n", sw.elapsedTime());
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
     /**
      * Returns time needed to put N random strings of length L into the
      * hashmap.Map61B 61bMap.
@@ -0,0 +1,98 @@
+package speed;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.Scanner;
+
+import hashmap.BoundedCache;
+import hashmap.LfuPolicy;
+import hashmap.LruPolicy;
+import hashmap.WindowTinyLfuPolicy;
+
+/**
+ * Replays a Zipf-distributed stream of keys against a BoundedCache with
+ * each eviction policy, and reports hit ratio and throughput. Every key
+ * is looked up with get(), and put() into the cache on a miss.
+ */
+public class CacheTraceSpeedTest {
+
+    /** Skew of the key popularity, 1 is classic Zipf */
+    private static final double ZIPF_EXPONENT = 0.99;
+
+    /**
+     * Requests user input and replays one trace against every
+     * eviction policy. ARGS is unused.
+     */
+    public static void main(String[] args) throws IOException {
+        Scanner input = new Scanner(System.in);
+
+        System.out.println("\n This program replays a Zipfian stream of "
+                + "Integer keys against bounded caches.\n");
+
+        String repeat = "y";
+        do {
+            System.out.print("\nEnter # distinct keys: ");
+            int keyCount = InsertRandomSpeedTest.waitForPositiveInt(input);
+            System.out.print("Enter cache capacity: ");
+            int capacity = InsertRandomSpeedTest.waitForPositiveInt(input);
+            System.out.print("Enter trace length: ");
+            int length = InsertRandomSpeedTest.waitForPositiveInt(input);
+
+            Integer[] trace = zipfTrace(keyCount, length, new Random(61));
+            replay("LRU", new BoundedCache<>(capacity, LruPolicy::new), trace);
+            replay("LFU", new BoundedCache<>(capacity, LfuPolicy::new), trace);
+            replay("W-TinyLFU",
+                    new BoundedCache<>(capacity, WindowTinyLfuPolicy::new), trace);
+
+            System.out.print("\nWould you like to try more timed-tests? (y/n)");
+            repeat = input.nextLine();
+        } while (!repeat.equalsIgnoreCase("n") && !repeat.equalsIgnoreCase("no"));
+        input.close();
+    }
+
+    /**
+     * Returns length keys drawn from 0..keyCount-1, where key k is drawn
+     * with probability proportional to 1 / (k + 1)^ZIPF_EXPONENT. Keys are
+     * shuffled so that popular keys are not also small integers.
+     */
+    public static Integer[] zipfTrace(int keyCount, int length, Random r) {
+        double[] cdf = new double[keyCount];
+        double sum = 0;
+        for (int k = 0; k < keyCount; k++) {
+            sum += 1 / Math.pow(k + 1, ZIPF_EXPONENT);
+            cdf[k] = sum;
+        }
+        Integer[] keys = new Integer[keyCount];
+        for (int k = 0; k < keyCount; k++) {
+            keys[k] = k;
+        }
+        for (int k = keyCount - 1; k > 0; k--) {
+            int j = r.nextInt(k + 1);
+            Integer tmp = keys[k];
+            keys[k] = keys[j];
+            keys[j] = tmp;
+        }
+        Integer[] trace = new Integer[length];
+        for (int i = 0; i < length; i++) {
+            int rank = Arrays.binarySearch(cdf, r.nextDouble() * sum);
+            trace[i] = keys[rank < 0 ? Math.min(-rank - 1, keyCount - 1) : rank];
+        }
+        return trace;
+    }
+
+    /**
+     * Runs trace through cache and prints hit ratio and ops/sec
+     */
+    public static void replay(String name, BoundedCache<Integer, Integer> cache, Integer[] trace) {
+        long start = System.nanoTime();
+        for (Integer key : trace) {
+            if (cache.get(key) == null) {
+                cache.put(key, key);
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%s: hit ratio %.4f, %.0f ops/sec, %d evictions\n",
+                name, cache.hitRatio(), trace.length / seconds, cache.evictionCount());
+    }
+}
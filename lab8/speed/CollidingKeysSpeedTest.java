@@ -0,0 +1,120 @@
+package speed;
+
+import edu.princeton.cs.algs4.Stopwatch;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Scanner;
+
+import hashmap.Map61B;
+import hashmap.MyHashMap;
+import hashmap.MyHashMapOA;
+import hashmap.MyHashMapTreeBuckets;
+
+/**
+ * Performs a timing test of maps under a hash-flooding attack: every key
+ * inserted has the same hashCode(), so all of them land in one bucket.
+ * For hashmap.MyHashMap purposes assumes that <K,V> are <String, Integer> pairs.
+ */
+public class CollidingKeysSpeedTest {
+    /**
+     * Requests user input and performs tests of map implementations
+     * against colliding keys. ARGS is unused.
+     */
+    public static void main(String[] args) throws IOException {
+        Scanner input = new Scanner(System.in);
+
+        System.out.println("\n This program inserts Strings that all share "
+                + "the same hashCode()\n"
+                + " into different types of maps as <String, Integer> pairs,\n"
+                + " then looks each of them up once.\n");
+
+        String repeat = "y";
+        do {
+            System.out.print("\nEnter # strings to insert into each map: ");
+            int N = InsertRandomSpeedTest.waitForPositiveInt(input);
+            String[] keys = collidingStrings(N);
+
+            timeCollidingMap61B(new MyHashMap<>(), keys);
+            timeCollidingMap61B(new MyHashMapTreeBuckets<>(), keys);
+            timeCollidingMap61B(new MyHashMapOA<>(), keys);
+            timeCollidingHashMap(new HashMap<>(), keys);
+
+            System.out.print("\nWould you like to try more timed-tests? (y/n)");
+            repeat = input.nextLine();
+        } while (!repeat.equalsIgnoreCase("n") && !repeat.equalsIgnoreCase("no"));
+        input.close();
+    }
+
+    /**
+     * Returns N distinct strings with the same hashCode(). "Aa" and "BB"
+     * hash alike, so do all strings built from the same number of them.
+     */
+    public static String[] collidingStrings(int N) {
+        int blocks = 1;
+        while ((1L << blocks) < N) {
+            blocks++;
+        }
+        String[] keys = new String[N];
+        for (int i = 0; i < N; i++) {
+            StringBuilder sb = new StringBuilder();
+            for (int bit = 0; bit < blocks; bit++) {
+                sb.append(((i >> bit) & 1) == 0 ? "Aa" : "BB");
+            }
+            keys[i] = sb.toString();
+        }
+        return keys;
+    }
+
+    /**
+     * Returns time needed to put every key into map61B and get it back.
+     */
+    public static double insertAndGet(Map61B<String, Integer> map61B, String[] keys) {
+        Stopwatch sw = new Stopwatch();
+        for (int i = 0; i < keys.length; i++) {
+            map61B.put(keys[i], i);
+        }
+        for (String key : keys) {
+            map61B.get(key);
+        }
+        return sw.elapsedTime();
+    }
+
+    /**
+     * Returns time needed to put every key into hashMap and get it back.
+     */
+    public static double insertAndGet(HashMap<String, Integer> hashMap, String[] keys) {
+        Stopwatch sw = new Stopwatch();
+        for (int i = 0; i < keys.length; i++) {
+            hashMap.put(keys[i], i);
+        }
+        for (String key : keys) {
+            hashMap.get(key);
+        }
+        return sw.elapsedTime();
+    }
+
+    /**
+     * Prints time of putting and getting every key in map
+     */
+    public static void timeCollidingMap61B(Map61B<String, Integer> map, String[] keys) {
+        try {
+            double mapTime = insertAndGet(map, keys);
+            System.out.printf(map.getClass() + ": %.2f sec\n", mapTime);
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Prints time of putting and getting every key in Java's HashMap
+     */
+    public static void timeCollidingHashMap(HashMap<String, Integer> hashMap, String[] keys) {
+        try {
+            double javaTime = insertAndGet(hashMap, keys);
+            System.out.printf("Java's Built-in HashMap: %.2f sec\n", javaTime);
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+}
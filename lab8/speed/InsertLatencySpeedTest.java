@@ -0,0 +1,87 @@
+package speed;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Scanner;
+
+import hashmap.Map61B;
+import hashmap.MyHashMap;
+
+/**
+ * Measures the latency of every single put() instead of the total time,
+ * to show the pauses caused by rehashing the whole table at once.
+ * GC pauses also show up in max, so run with a large fixed heap
+ * (e.g. -Xms2g -Xmx2g) and compare p99 as well.
+ * For hashmap.MyHashMap purposes assumes that <K,V> are <String, Integer> pairs.
+ */
+public class InsertLatencySpeedTest {
+    /**
+     * Requests user input and reports per-put latency percentiles of
+     * MyHashMap with and without incremental resizing. ARGS is unused.
+     */
+    public static void main(String[] args) throws IOException {
+        Scanner input = new Scanner(System.in);
+
+        System.out.println("\n This program inserts random "
+                + "Strings of length L\n"
+                + " Into MyHashMap with and without incremental resizing\n"
+                + " and reports the latency of each put().\n");
+        System.out.print("What would you like L to be?: ");
+        int L = InsertRandomSpeedTest.waitForPositiveInt(input);
+
+        String repeat = "y";
+        do {
+            System.out.print("\nEnter # strings to insert into each map: ");
+            int N = InsertRandomSpeedTest.waitForPositiveInt(input);
+
+            timeLatencyMap61B("MyHashMap", new MyHashMap<>(), N, L);
+            timeLatencyMap61B("MyHashMap (incremental resize)",
+                    new MyHashMap<>(16, 0.75, true), N, L);
+
+            System.out.print("\nWould you like to try more timed-tests? (y/n)");
+            repeat = input.nextLine();
+        } while (!repeat.equalsIgnoreCase("n") && !repeat.equalsIgnoreCase("no"));
+        input.close();
+    }
+
+    /**
+     * Puts N random strings of length L into map and returns the
+     * latency of every put() in nanoseconds, sorted ascending.
+     */
+    public static long[] insertRandomLatencies(Map61B<String, Integer> map61B, int N, int L) {
+        // generate keys first so only put() is measured
+        String[] keys = new String[N];
+        for (int i = 0; i < N; i++) {
+            keys[i] = StringUtils.randomString(L);
+        }
+        long[] latencies = new long[N];
+        for (int i = 0; i < N; i++) {
+            long start = System.nanoTime();
+            map61B.put(keys[i], i);
+            latencies[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    /**
+     * Prints p50, p99 and max put() latency of map in microseconds
+     */
+    public static void timeLatencyMap61B(String name, Map61B<String, Integer> map, int N, int L) {
+        try {
+            long[] latencies = insertRandomLatencies(map, N, L);
+            System.out.printf("%s: p50 %.2f us, p99 %.2f us, max %.2f us\n", name,
+                    percentile(latencies, 0.50) / 1e3,
+                    percentile(latencies, 0.99) / 1e3,
+                    latencies[latencies.length - 1] / 1e3);
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /** Returns the p-th percentile of sorted, using the nearest-rank method */
+    private static long percentile(long[] sorted, double p) {
+        int rank = (int) Math.ceil(p * sorted.length);
+        return sorted[Math.max(rank - 1, 0)];
+    }
+}
@@ -0,0 +1,115 @@
+package speed;
+
+import java.io.PrintWriter;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+import hashmap.ConcurrentMyHashMap;
+import hashmap.Map61B;
+import hashmap.MyHashMap;
+import hashmap.MyHashMapALBuckets;
+import hashmap.MyHashMapHSBuckets;
+import hashmap.MyHashMapLLBuckets;
+import hashmap.MyHashMapOA;
+import hashmap.MyHashMapPQBuckets;
+import hashmap.MyHashMapTSBuckets;
+import hashmap.MyHashMapTreeBuckets;
+import hashmap.ULLMap;
+
+/**
+ * Prints a CSV of bytes per entry against N for every Map61B in this lab,
+ * with java.util.TreeMap and HashMap as baselines. Each map is filled with N
+ * random Strings of length L mapped to Integers and measured by ObjectSizer.
+ * overhead_per_entry leaves out the keys and values themselves, which are
+ * the same for every map, so it is the cost of the data structure alone.
+ *
+ * Usage: java --add-opens java.base/java.util=ALL-UNNAMED
+ *             --add-opens java.base/java.lang=ALL-UNNAMED
+ *             --add-opens java.base/java.util.concurrent.locks=ALL-UNNAMED
+ *             --add-opens java.base/java.util.concurrent.atomic=ALL-UNNAMED
+ *             speed.MemoryFootprint [--n 10:100000:10] [--length 10]
+ * Without the --add-opens flags, JDK classes inside or among the maps are
+ * only partly measured and their rows are marked as lower bounds.
+ */
+public class MemoryFootprint {
+
+    /** Every map this class can measure, by name */
+    private static final Map<String, Supplier<Map61B<String, Integer>>> IMPLEMENTATIONS =
+            new LinkedHashMap<>();
+
+    static {
+        IMPLEMENTATIONS.put("ULLMap", ULLMap::new);
+        IMPLEMENTATIONS.put("MyHashMap", MyHashMap::new);
+        IMPLEMENTATIONS.put("AL", MyHashMapALBuckets::new);
+        IMPLEMENTATIONS.put("LL", MyHashMapLLBuckets::new);
+        IMPLEMENTATIONS.put("TS", MyHashMapTSBuckets::new);
+        IMPLEMENTATIONS.put("HS", MyHashMapHSBuckets::new);
+        IMPLEMENTATIONS.put("PQ", MyHashMapPQBuckets::new);
+        IMPLEMENTATIONS.put("Tree", MyHashMapTreeBuckets::new);
+        IMPLEMENTATIONS.put("OA", MyHashMapOA::new);
+        IMPLEMENTATIONS.put("Concurrent", ConcurrentMyHashMap::new);
+    }
+
+    private static final PrintWriter OUT = new PrintWriter(System.out, true);
+
+    public static void main(String[] args) {
+        Map<String, String> options = RunnerUtils.parseOptions(args, Set.of("--n", "--length"));
+        List<Integer> sizes = RunnerUtils.parseSizes(options.getOrDefault("--n", "10:100000:10"));
+        int L = Integer.parseInt(options.getOrDefault("--length", "10"));
+
+        RunnerUtils.writeCsvRow(OUT, "impl", "n", "total_bytes", "bytes_per_entry",
+                "overhead_per_entry", "exact");
+        for (int n : sizes) {
+            StringUtils.setSeed(61);
+            String[] keys = new String[n];
+            Integer[] values = new Integer[n];
+            for (int i = 0; i < n; i++) {
+                keys[i] = StringUtils.randomString(L);
+                values[i] = i;
+            }
+            // ULLMap recurses once per entry, so leave it out of large runs
+            for (Map.Entry<String, Supplier<Map61B<String, Integer>>> e
+                    : IMPLEMENTATIONS.entrySet()) {
+                if (e.getKey().equals("ULLMap") && n > 1000) {
+                    continue;
+                }
+                Map61B<String, Integer> map = e.getValue().get();
+                for (int i = 0; i < n; i++) {
+                    map.put(keys[i], values[i]);
+                }
+                report(e.getKey(), map, map.size(), keys, values);
+            }
+            TreeMap<String, Integer> treeMap = new TreeMap<>();
+            for (int i = 0; i < n; i++) {
+                treeMap.put(keys[i], values[i]);
+            }
+            report("TreeMap", treeMap, treeMap.size(), keys, values);
+            HashMap<String, Integer> hashMap = new HashMap<>();
+            for (int i = 0; i < n; i++) {
+                hashMap.put(keys[i], values[i]);
+            }
+            report("HashMap", hashMap, hashMap.size(), keys, values);
+        }
+    }
+
+    /** Measures map with and without its keys and values and prints one row */
+    private static void report(String name, Object map, int size, String[] keys, Integer[] values) {
+        ObjectSizer sizer = new ObjectSizer();
+        long total = sizer.deepSize(map, Collections.emptySet());
+        Set<Object> contents = Collections.newSetFromMap(new IdentityHashMap<>());
+        Collections.addAll(contents, keys);
+        Collections.addAll(contents, values);
+        long overhead = sizer.deepSize(map, contents);
+        String exact = sizer.inaccessibleFields() > 0 ? "lower_bound"
+                : ObjectSizer.isExact() ? "instrument" : "estimate";
+        RunnerUtils.writeCsvRow(OUT, name, size, total, RunnerUtils.decimal((double) total / size, 1),
+                RunnerUtils.decimal((double) overhead / size, 1), exact);
+    }
+}
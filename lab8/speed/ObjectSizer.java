@@ -0,0 +1,178 @@
+package speed;
+
+import java.lang.instrument.Instrumentation;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Measures the retained size of an object graph by walking its fields with
+ * reflection, the way JOL does, and adding up the size of every object
+ * reachable from the root exactly once.
+ *
+ * The size of a single object comes from java.lang.instrument when this
+ * class is loaded as an agent (pack it into a jar whose manifest has
+ * a Premain-Class entry naming this class and start the JVM with
+ * -javaagent).
+ * Otherwise it is estimated for a 64-bit HotSpot JVM with compressed oops:
+ * 12 byte object headers, 16 byte array headers, 4 byte references and
+ * 8 byte alignment.
+ *
+ * Fields of JDK classes such as ArrayList can only be read with
+ * --add-opens java.base/java.util=ALL-UNNAMED (and java.lang for String,
+ * java.util.concurrent.atomic and .locks for the concurrent maps).
+ * Objects whose fields cannot be read are counted without their children,
+ * and inaccessibleFields() reports how many times that happened, so a
+ * non-zero count means the size is a lower bound.
+ */
+public class ObjectSizer {
+
+    private static final int OBJECT_HEADER = 12;
+    private static final int ARRAY_HEADER = 16;
+    private static final int REFERENCE = 4;
+    private static final int ALIGNMENT = 8;
+
+    private static volatile Instrumentation instrumentation;
+
+    /** Instance fields of each class and its superclasses, cached */
+    private final Map<Class<?>, List<Field>> fields = new IdentityHashMap<>();
+    private final Map<Class<?>, Long> shallowSizes = new IdentityHashMap<>();
+    private int inaccessibleFields;
+
+    /** Called by the JVM when started with -javaagent */
+    public static void premain(String args, Instrumentation inst) {
+        instrumentation = inst;
+    }
+
+    /** Called by the JVM when attached as an agent at runtime */
+    public static void agentmain(String args, Instrumentation inst) {
+        instrumentation = inst;
+    }
+
+    /** Returns true if sizes come from java.lang.instrument, not an estimate */
+    public static boolean isExact() {
+        return instrumentation != null;
+    }
+
+    /** Returns the number of fields that could not be read so far */
+    public int inaccessibleFields() {
+        return inaccessibleFields;
+    }
+
+    /**
+     * Returns the size in bytes of every object reachable from root,
+     * not counting objects in exclude or anything reachable only through them
+     */
+    public long deepSize(Object root, Set<Object> exclude) {
+        Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<Object> stack = new ArrayDeque<>();
+        stack.push(root);
+        long total = 0;
+        while (!stack.isEmpty()) {
+            Object o = stack.pop();
+            if (exclude.contains(o) || !visited.add(o) || isShared(o)) {
+                continue;
+            }
+            total += shallowSize(o);
+            Class<?> c = o.getClass();
+            if (c.isArray()) {
+                if (!c.getComponentType().isPrimitive()) {
+                    for (int i = 0; i < Array.getLength(o); i++) {
+                        Object element = Array.get(o, i);
+                        if (element != null) {
+                            stack.push(element);
+                        }
+                    }
+                }
+                continue;
+            }
+            for (Field f : fieldsOf(c)) {
+                if (f.getType().isPrimitive()) {
+                    continue;
+                }
+                if (!f.canAccess(o)) {
+                    inaccessibleFields++;
+                    continue;
+                }
+                try {
+                    Object child = f.get(o);
+                    if (child != null) {
+                        stack.push(child);
+                    }
+                } catch (IllegalAccessException e) {
+                    inaccessibleFields++;
+                }
+            }
+        }
+        return total;
+    }
+
+    /** Returns the size in bytes of o alone */
+    public long shallowSize(Object o) {
+        if (instrumentation != null) {
+            return instrumentation.getObjectSize(o);
+        }
+        Class<?> c = o.getClass();
+        if (c.isArray()) {
+            Class<?> component = c.getComponentType();
+            int elementSize = component.isPrimitive() ? primitiveSize(component) : REFERENCE;
+            return align(ARRAY_HEADER + (long) elementSize * Array.getLength(o));
+        }
+        return shallowSizes.computeIfAbsent(c, k -> {
+            long size = OBJECT_HEADER;
+            for (Class<?> t = k; t != null; t = t.getSuperclass()) {
+                for (Field f : t.getDeclaredFields()) {
+                    if (!Modifier.isStatic(f.getModifiers())) {
+                        size += f.getType().isPrimitive() ? primitiveSize(f.getType()) : REFERENCE;
+                    }
+                }
+            }
+            return align(size);
+        });
+    }
+
+    /** Objects that belong to the JVM rather than to any one data structure */
+    private static boolean isShared(Object o) {
+        return o instanceof Class || o instanceof ClassLoader || o instanceof Thread
+                || o instanceof Enum;
+    }
+
+    /** Returns the instance fields of c and its superclasses */
+    private List<Field> fieldsOf(Class<?> c) {
+        return fields.computeIfAbsent(c, k -> {
+            List<Field> result = new ArrayList<>();
+            for (Class<?> t = k; t != null; t = t.getSuperclass()) {
+                for (Field f : t.getDeclaredFields()) {
+                    if (!Modifier.isStatic(f.getModifiers()) && !f.getType().isPrimitive()) {
+                        f.trySetAccessible();
+                        result.add(f);
+                    }
+                }
+            }
+            return result;
+        });
+    }
+
+    private static int primitiveSize(Class<?> c) {
+        if (c == long.class || c == double.class) {
+            return 8;
+        } else if (c == int.class || c == float.class) {
+            return 4;
+        } else if (c == short.class || c == char.class) {
+            return 2;
+        }
+        return 1;
+    }
+
+    private static long align(long size) {
+        return (size + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+}
@@ -0,0 +1,96 @@
+package speed;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Scanner;
+
+import hashmap.Map61B;
+import hashmap.MyHashMap;
+import hashmap.OffHeapHashMap;
+import hashmap.Serializer;
+
+/**
+ * Compares MyHashMap with OffHeapHashMap holding N random Strings of
+ * length L mapped to Integers. For each map reports the time to put and
+ * then get every key, the collections and collector time spent meanwhile,
+ * and the heap still in use once the map is full.
+ * Run with a small fixed heap (e.g. -Xmx512m) to see MyHashMap run out of
+ * room while OffHeapHashMap only needs -XX:MaxDirectMemorySize.
+ */
+public class OffHeapSpeedTest {
+
+    /**
+     * Requests user input and times both maps. ARGS is unused.
+     */
+    public static void main(String[] args) throws IOException {
+        Scanner input = new Scanner(System.in);
+
+        System.out.println("\n This program inserts N random Strings of length L\n"
+                + " into an on-heap and an off-heap map.\n");
+        System.out.print("What would you like L to be?: ");
+        int L = InsertRandomSpeedTest.waitForPositiveInt(input);
+
+        String repeat = "y";
+        do {
+            System.out.print("\nEnter # strings to insert: ");
+            int N = InsertRandomSpeedTest.waitForPositiveInt(input);
+
+            time("MyHashMap", new MyHashMap<>(), N, L);
+            time("OffHeapHashMap",
+                    new OffHeapHashMap<>(Serializer.string(), Serializer.integer()), N, L);
+
+            System.out.print("\nWould you like to try more timed-tests? (y/n)");
+            repeat = input.nextLine();
+        } while (!repeat.equalsIgnoreCase("n") && !repeat.equalsIgnoreCase("no"));
+        input.close();
+    }
+
+    /** Puts and gets N random strings of length L and prints the costs */
+    public static void time(String name, Map61B<String, Integer> map, int N, int L) {
+        System.gc();
+        long gcCount = gcCount();
+        long gcMillis = gcMillis();
+
+        StringUtils.setSeed(61);
+        long start = System.nanoTime();
+        for (int i = 0; i < N; i++) {
+            map.put(StringUtils.randomString(L), i);
+        }
+        double putSeconds = (System.nanoTime() - start) / 1e9;
+
+        StringUtils.setSeed(61);
+        start = System.nanoTime();
+        for (int i = 0; i < N; i++) {
+            map.get(StringUtils.randomString(L));
+        }
+        double getSeconds = (System.nanoTime() - start) / 1e9;
+
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        long heapMB = (runtime.totalMemory() - runtime.freeMemory()) >> 20;
+        System.out.printf("%s: put %.2f sec, get %.2f sec, %d GCs taking %d ms, "
+                        + "%d MB heap in use\n", name, putSeconds, getSeconds,
+                gcCount() - gcCount, gcMillis() - gcMillis, heapMB);
+        // keep the map reachable until the heap has been measured
+        if (map.size() < 0) {
+            System.out.println(map);
+        }
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += gc.getCollectionCount();
+        }
+        return count;
+    }
+
+    private static long gcMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += gc.getCollectionTime();
+        }
+        return millis;
+    }
+}
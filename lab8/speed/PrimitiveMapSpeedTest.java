@@ -0,0 +1,101 @@
+package speed;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.Scanner;
+
+import hashmap.IntIntHashMap;
+import hashmap.MyHashMap;
+
+/**
+ * Compares throughput and allocation of an int-keyed counter built on
+ * IntIntHashMap, MyHashMap<Integer, Integer> and Java's HashMap.
+ * Each test increments the count of N random ints drawn from [0, N).
+ */
+public class PrimitiveMapSpeedTest {
+
+    /** Per-thread allocation counter, only available on HotSpot JVMs */
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /**
+     * Requests user input and performs tests of three different
+     * counter implementations. ARGS is unused.
+     */
+    public static void main(String[] args) throws IOException {
+        Scanner input = new Scanner(System.in);
+
+        System.out.println("\n This program counts N random ints "
+                + "with int-keyed maps.\n");
+
+        String repeat = "y";
+        do {
+            System.out.print("\nEnter # ints to count: ");
+            int N = InsertRandomSpeedTest.waitForPositiveInt(input);
+            int[] ints = randomInts(N);
+
+            report("IntIntHashMap", N, countPrimitive(ints));
+            report("MyHashMap<Integer, Integer>", N, countMyHashMap(ints));
+            report("Java's Built-in HashMap", N, countHashMap(ints));
+
+            System.out.print("\nWould you like to try more timed-tests? (y/n)");
+            repeat = input.nextLine();
+        } while (!repeat.equalsIgnoreCase("n") && !repeat.equalsIgnoreCase("no"));
+        input.close();
+    }
+
+    /** Returns N random ints in [0, N) */
+    public static int[] randomInts(int N) {
+        Random r = new Random(61);
+        int[] ints = new int[N];
+        for (int i = 0; i < N; i++) {
+            ints[i] = r.nextInt(N);
+        }
+        return ints;
+    }
+
+    /** Returns {elapsed nanoseconds, allocated bytes} of counting ints with IntIntHashMap */
+    public static long[] countPrimitive(int[] ints) {
+        long bytes = THREADS.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        IntIntHashMap counts = new IntIntHashMap();
+        for (int x : ints) {
+            counts.increment(x, 1);
+        }
+        long time = System.nanoTime() - start;
+        return new long[]{time, THREADS.getCurrentThreadAllocatedBytes() - bytes};
+    }
+
+    /** Returns {elapsed nanoseconds, allocated bytes} of counting ints with MyHashMap */
+    public static long[] countMyHashMap(int[] ints) {
+        long bytes = THREADS.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        MyHashMap<Integer, Integer> counts = new MyHashMap<>();
+        for (int x : ints) {
+            Integer count = counts.get(x);
+            counts.put(x, count == null ? 1 : count + 1);
+        }
+        long time = System.nanoTime() - start;
+        return new long[]{time, THREADS.getCurrentThreadAllocatedBytes() - bytes};
+    }
+
+    /** Returns {elapsed nanoseconds, allocated bytes} of counting ints with HashMap */
+    public static long[] countHashMap(int[] ints) {
+        long bytes = THREADS.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        HashMap<Integer, Integer> counts = new HashMap<>();
+        for (int x : ints) {
+            counts.merge(x, 1, Integer::sum);
+        }
+        long time = System.nanoTime() - start;
+        return new long[]{time, THREADS.getCurrentThreadAllocatedBytes() - bytes};
+    }
+
+    /** Prints ops/sec and allocated bytes per op */
+    private static void report(String name, int N, long[] result) {
+        System.out.printf("%s: %.0f ops/sec, %.1f bytes allocated/op\n",
+                name, N / (result[0] / 1e9), (double) result[1] / N);
+    }
+}
@@ -0,0 +1,129 @@
+package speed;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Command line parsing and CSV/JSON output shared by the non-interactive
+ * runners in this package, SpeedRunner and MemoryFootprint.
+ * A row is an array of values, one per column: Strings, integers, or
+ * decimals made by decimal(), where null stands for a failed measurement.
+ */
+public class RunnerUtils {
+
+    /**
+     * Parses "--name value" pairs into a map from name, with the dashes, to
+     * value. Throws IllegalArgumentException on a name not in names or a
+     * name without a value.
+     */
+    public static Map<String, String> parseOptions(String[] args, Set<String> names) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i += 2) {
+            if (!names.contains(args[i])) {
+                throw new IllegalArgumentException("unknown option " + args[i]);
+            }
+            if (i + 1 == args.length) {
+                throw new IllegalArgumentException("missing value for " + args[i]);
+            }
+            options.put(args[i], args[i + 1]);
+        }
+        return options;
+    }
+
+    /** Parses "a,b,c" or "start:end:factor" into a list of sizes */
+    public static List<Integer> parseSizes(String spec) {
+        List<Integer> sizes = new ArrayList<>();
+        if (spec.contains(":")) {
+            String[] parts = spec.split(":");
+            long factor = Long.parseLong(parts[2]);
+            if (factor < 2) {
+                throw new IllegalArgumentException("factor must be at least 2");
+            }
+            for (long n = Long.parseLong(parts[0]); n <= Long.parseLong(parts[1]); n *= factor) {
+                sizes.add((int) n);
+            }
+        } else {
+            for (String n : spec.split(",")) {
+                sizes.add(Integer.parseInt(n.trim()));
+            }
+        }
+        return sizes;
+    }
+
+    /** Returns value rounded to places decimals, or null if it is NaN or infinite */
+    public static BigDecimal decimal(double value, int places) {
+        if (!Double.isFinite(value)) {
+            return null;
+        }
+        return new BigDecimal(value).setScale(places, RoundingMode.HALF_UP);
+    }
+
+    /** Returns a writer to the file out, or to standard output if out is null */
+    public static PrintWriter open(String out) throws IOException {
+        return out == null ? new PrintWriter(System.out, true) : new PrintWriter(new FileWriter(out));
+    }
+
+    /** Writes one CSV line, with NaN for null values */
+    public static void writeCsvRow(PrintWriter w, Object... values) {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            line.append(csvValue(values[i]));
+        }
+        w.println(line);
+    }
+
+    /** Writes a header line and then every row as CSV */
+    public static void writeCsv(PrintWriter w, String[] columns, List<Object[]> rows) {
+        writeCsvRow(w, (Object[]) columns);
+        for (Object[] row : rows) {
+            writeCsvRow(w, row);
+        }
+    }
+
+    /** Writes rows as a JSON array of objects keyed by column */
+    public static void writeJson(PrintWriter w, String[] columns, List<Object[]> rows) {
+        w.println("[");
+        for (int i = 0; i < rows.size(); i++) {
+            Object[] row = rows.get(i);
+            StringBuilder line = new StringBuilder("  {");
+            for (int c = 0; c < columns.length; c++) {
+                if (c > 0) {
+                    line.append(", ");
+                }
+                line.append('"').append(columns[c]).append("\": ").append(jsonValue(row[c]));
+            }
+            line.append('}').append(i + 1 < rows.size() ? "," : "");
+            w.println(line);
+        }
+        w.println("]");
+    }
+
+    private static String csvValue(Object value) {
+        if (value == null) {
+            return "NaN";
+        }
+        return value instanceof BigDecimal ? ((BigDecimal) value).toPlainString() : value.toString();
+    }
+
+    /** JSON has no NaN, so failed measurements are null */
+    private static String jsonValue(Object value) {
+        if (value == null) {
+            return "null";
+        }
+        if (value instanceof String) {
+            return "\"" + value + "\"";
+        }
+        return csvValue(value);
+    }
+}
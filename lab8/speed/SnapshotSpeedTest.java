@@ -0,0 +1,79 @@
+package speed;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Scanner;
+
+import hashmap.MappedSnapshot;
+import hashmap.MyHashMap;
+import hashmap.Serializer;
+
+/**
+ * Measures how long it takes to get a map of N random Strings of length L
+ * back after a restart: put() of every entry read from the snapshot,
+ * MappedSnapshot.toMyHashMap(), and MappedSnapshot.open() on its own.
+ */
+public class SnapshotSpeedTest {
+
+    /**
+     * Requests user input and times each way of restoring a map. ARGS is unused.
+     */
+    public static void main(String[] args) throws IOException {
+        Scanner input = new Scanner(System.in);
+
+        System.out.println("\n This program saves a MyHashMap of N random Strings of\n"
+                + " length L to a snapshot and times loading it back.\n");
+        System.out.print("What would you like L to be?: ");
+        int L = InsertRandomSpeedTest.waitForPositiveInt(input);
+
+        String repeat = "y";
+        do {
+            System.out.print("\nEnter # strings to insert: ");
+            int N = InsertRandomSpeedTest.waitForPositiveInt(input);
+            MyHashMap<String, Integer> map = new MyHashMap<>();
+            for (int i = 0; i < N; i++) {
+                map.put(StringUtils.randomString(L), i);
+            }
+
+            Path file = Files.createTempFile("snapshot", ".bin");
+            try {
+                long start = System.nanoTime();
+                MappedSnapshot.write(map, file, Serializer.string(), Serializer.integer());
+                System.out.printf("write: %.3f sec, %d MB\n", seconds(start),
+                        Files.size(file) >> 20);
+                map = null;
+
+                start = System.nanoTime();
+                MappedSnapshot<String, Integer> snapshot =
+                        MappedSnapshot.open(file, Serializer.string(), Serializer.integer());
+                System.out.printf("open (read-only, mapped): %.3f sec\n", seconds(start));
+
+                start = System.nanoTime();
+                MyHashMap<String, Integer> restored = snapshot.toMyHashMap();
+                System.out.printf("toMyHashMap: %.3f sec\n", seconds(start));
+
+                start = System.nanoTime();
+                MyHashMap<String, Integer> reinserted = new MyHashMap<>();
+                for (String key : snapshot) {
+                    reinserted.put(key, snapshot.get(key));
+                }
+                System.out.printf("put() one by one: %.3f sec\n", seconds(start));
+
+                if (restored.size() != reinserted.size()) {
+                    System.out.println("restored maps differ in size");
+                }
+            } finally {
+                Files.delete(file);
+            }
+
+            System.out.print("\nWould you like to try more timed-tests? (y/n)");
+            repeat = input.nextLine();
+        } while (!repeat.equalsIgnoreCase("n") && !repeat.equalsIgnoreCase("no"));
+        input.close();
+    }
+
+    private static double seconds(long start) {
+        return (System.nanoTime() - start) / 1e9;
+    }
+}
@@ -0,0 +1,181 @@
+package speed;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+import hashmap.MyHashMap;
+import hashmap.MyHashMapALBuckets;
+import hashmap.MyHashMapHSBuckets;
+import hashmap.MyHashMapLLBuckets;
+import hashmap.MyHashMapOA;
+import hashmap.MyHashMapPQBuckets;
+import hashmap.MyHashMapTSBuckets;
+import hashmap.MyHashMapTreeBuckets;
+import hashmap.ULLMap;
+
+/**
+ * Non-interactive version of InsertRandomSpeedTest and InsertInOrderSpeedTest.
+ * Runs a sweep given on the command line and writes one CSV or JSON record
+ * per (implementation, order, N) with the mean and standard deviation of
+ * the insert time and the resulting ops/sec.
+ *
+ * Usage: java speed.SpeedRunner [--impls MyHashMap,OA,...] [--n 1000,10000]
+ *        [--n 1000:1000000:10] [--length 10] [--reps 5] [--warmup 2]
+ *        [--order random|inorder|both] [--format csv|json] [--out file]
+ *
+ * --n takes either a list of sizes or start:end:factor, a geometric range.
+ * Keys are generated before the clock starts, so only put() is timed.
+ */
+public class SpeedRunner {
+
+    /** Every map this runner can time, by the name used in --impls */
+    private static final Map<String, Supplier<BiConsumer<String, Integer>>> IMPLEMENTATIONS =
+            new LinkedHashMap<>();
+
+    static {
+        IMPLEMENTATIONS.put("ULLMap", () -> new ULLMap<String, Integer>()::put);
+        IMPLEMENTATIONS.put("MyHashMap", () -> new MyHashMap<String, Integer>()::put);
+        IMPLEMENTATIONS.put("AL", () -> new MyHashMapALBuckets<String, Integer>()::put);
+        IMPLEMENTATIONS.put("LL", () -> new MyHashMapLLBuckets<String, Integer>()::put);
+        IMPLEMENTATIONS.put("TS", () -> new MyHashMapTSBuckets<String, Integer>()::put);
+        IMPLEMENTATIONS.put("HS", () -> new MyHashMapHSBuckets<String, Integer>()::put);
+        IMPLEMENTATIONS.put("PQ", () -> new MyHashMapPQBuckets<String, Integer>()::put);
+        IMPLEMENTATIONS.put("Tree", () -> new MyHashMapTreeBuckets<String, Integer>()::put);
+        IMPLEMENTATIONS.put("OA", () -> new MyHashMapOA<String, Integer>()::put);
+        IMPLEMENTATIONS.put("HashMap", () -> new HashMap<String, Integer>()::put);
+    }
+
+    private static final String[] COLUMNS = {"impl", "order", "n", "length", "reps",
+        "mean_sec", "stddev_sec", "ops_per_sec", "status"};
+
+    /** One line of output */
+    private static class Result {
+        String impl;
+        String order;
+        int n;
+        double meanSec;
+        double stddevSec;
+        String status = "ok";
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = RunnerUtils.parseOptions(args, Set.of("--impls", "--n",
+                "--length", "--reps", "--warmup", "--order", "--format", "--out"));
+        List<String> impls = options.containsKey("--impls")
+                ? List.of(options.get("--impls").split(","))
+                : new ArrayList<>(IMPLEMENTATIONS.keySet());
+        List<Integer> sizes = RunnerUtils.parseSizes(options.getOrDefault("--n", "1000,10000,100000"));
+        int L = Integer.parseInt(options.getOrDefault("--length", "10"));
+        int reps = Integer.parseInt(options.getOrDefault("--reps", "5"));
+        int warmup = Integer.parseInt(options.getOrDefault("--warmup", "2"));
+        String order = options.getOrDefault("--order", "random");
+        String format = options.getOrDefault("--format", "csv");
+        String out = options.get("--out");
+
+        for (String impl : impls) {
+            if (!IMPLEMENTATIONS.containsKey(impl)) {
+                throw new IllegalArgumentException("unknown implementation " + impl
+                        + ", expected one of " + IMPLEMENTATIONS.keySet());
+            }
+        }
+        List<String> orders = order.equals("both") ? List.of("random", "inorder") : List.of(order);
+
+        List<Object[]> rows = new ArrayList<>();
+        for (String o : orders) {
+            for (int n : sizes) {
+                String[] keys = o.equals("inorder") ? inOrderKeys(n, L) : randomKeys(n, L);
+                for (String impl : impls) {
+                    Result r = run(impl, o, keys, reps, warmup);
+                    rows.add(new Object[] {r.impl, r.order, r.n, L, reps,
+                        RunnerUtils.decimal(r.meanSec, 6), RunnerUtils.decimal(r.stddevSec, 6),
+                        RunnerUtils.decimal(r.n / r.meanSec, 0), r.status});
+                }
+            }
+        }
+
+        PrintWriter writer = RunnerUtils.open(out);
+        if (format.equals("json")) {
+            RunnerUtils.writeJson(writer, COLUMNS, rows);
+        } else {
+            RunnerUtils.writeCsv(writer, COLUMNS, rows);
+        }
+        writer.flush();
+        if (out != null) {
+            writer.close();
+        }
+    }
+
+    /** Returns N random strings of length L, the same ones on every run */
+    private static String[] randomKeys(int N, int L) {
+        StringUtils.setSeed(61);
+        String[] keys = new String[N];
+        for (int i = 0; i < N; i++) {
+            keys[i] = StringUtils.randomString(L);
+        }
+        return keys;
+    }
+
+    /** Returns N strings in increasing order, starting from L a's */
+    private static String[] inOrderKeys(int N, int L) {
+        String[] keys = new String[N];
+        String s = "a".repeat(L);
+        for (int i = 0; i < N; i++) {
+            keys[i] = s;
+            s = StringUtils.nextString(s);
+        }
+        return keys;
+    }
+
+    /**
+     * Inserts keys into a fresh map warmup times without recording, then
+     * reps times recording the elapsed time
+     */
+    private static Result run(String impl, String order, String[] keys, int reps, int warmup) {
+        Result result = new Result();
+        result.impl = impl;
+        result.order = order;
+        result.n = keys.length;
+        double[] seconds = new double[reps];
+        try {
+            for (int r = 0; r < warmup; r++) {
+                insertAll(IMPLEMENTATIONS.get(impl).get(), keys);
+            }
+            for (int r = 0; r < reps; r++) {
+                seconds[r] = insertAll(IMPLEMENTATIONS.get(impl).get(), keys);
+            }
+        } catch (StackOverflowError e) {
+            result.status = "stackoverflow";
+            result.meanSec = Double.NaN;
+            result.stddevSec = Double.NaN;
+            return result;
+        }
+        double sum = 0;
+        for (double s : seconds) {
+            sum += s;
+        }
+        result.meanSec = sum / reps;
+        double squares = 0;
+        for (double s : seconds) {
+            squares += (s - result.meanSec) * (s - result.meanSec);
+        }
+        result.stddevSec = reps > 1 ? Math.sqrt(squares / (reps - 1)) : 0;
+        return result;
+    }
+
+    /** Returns seconds needed to put every key into map */
+    private static double insertAll(BiConsumer<String, Integer> map, String[] keys) {
+        long start = System.nanoTime();
+        for (int i = 0; i < keys.length; i++) {
+            map.accept(keys[i], i);
+        }
+        return (System.nanoTime() - start) / 1e9;
+    }
+}
@@ -0,0 +1,125 @@
+package deque;
+
+/**
+ * A fixed-capacity FIFO queue of primitive doubles, kept in a circular
+ * array. Unlike ArrayDeque<Double>, no operation boxes its value or
+ * allocates anything after construction, and the array never resizes.
+ * The array length is the capacity rounded up to a power of two, so an
+ * index wraps around with a bit mask instead of a division.
+ */
+public class DoubleRingBuffer {
+    private final double[] items;
+    private final int mask;      // items.length - 1
+    private final int capacity;  // most items this buffer holds
+    private int first;           // index of the first item in "items"
+    private int size;
+
+    /**
+     * Create an empty buffer that holds up to "capacity" items
+     * @param capacity the most items this buffer holds
+     */
+    public DoubleRingBuffer(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity must be in [1, 2^30]: " + capacity);
+        }
+        // round up to a power of two
+        items = new double[capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1];
+        mask = items.length - 1;
+        this.capacity = capacity;
+        first = 0;
+        size = 0;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean isFull() {
+        return size == capacity;
+    }
+
+    /**
+     * This function add an item after the last item of the buffer
+     * @param x item to add
+     * @throws IllegalStateException if the buffer is full
+     */
+    public void addLast(double x) {
+        if (size == capacity) {
+            throw new IllegalStateException("ring buffer overflow");
+        }
+        items[(first + size) & mask] = x;
+        size++;
+    }
+
+    /**
+     * This function remove the first item of the buffer
+     * @return the removed item
+     * @throws IllegalStateException if the buffer is empty
+     */
+    public double removeFirst() {
+        if (size == 0) {
+            throw new IllegalStateException("ring buffer underflow");
+        }
+        double x = items[first];
+        first = (first + 1) & mask;
+        size--;
+        return x;
+    }
+
+    /**
+     * This function return an item by index, 0 being the first item
+     * @param index index of the item
+     * @return the item at index
+     * @throws IndexOutOfBoundsException unless 0 <= index < size()
+     */
+    public double get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+        }
+        return items[(first + index) & mask];
+    }
+
+    /**
+     * This function replace an item by index, 0 being the first item
+     * @param index index of the item
+     * @param x the new item
+     * @throws IndexOutOfBoundsException unless 0 <= index < size()
+     */
+    public void set(int index, double x) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+        }
+        items[(first + index) & mask] = x;
+    }
+
+    /**
+     * This function remove the first item and add x after the last one in
+     * a single step, keeping the size, as a full buffer needs every tick
+     * @param x item to add
+     * @return the removed item
+     * @throws IllegalStateException if the buffer is empty
+     */
+    public double replaceFirst(double x) {
+        if (size == 0) {
+            throw new IllegalStateException("ring buffer underflow");
+        }
+        double removed = items[first];
+        items[(first + size) & mask] = x;
+        first = (first + 1) & mask;
+        return removed;
+    }
+
+    /** Remove all items */
+    public void clear() {
+        first = 0;
+        size = 0;
+    }
+}
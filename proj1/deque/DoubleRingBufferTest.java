@@ -0,0 +1,83 @@
+package deque;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DoubleRingBufferTest {
+
+    @Test
+    /** Fills a buffer, checking size(), isEmpty() and isFull() as it goes. */
+    public void addRemoveTest() {
+        DoubleRingBuffer rb = new DoubleRingBuffer(5);
+        assertTrue(rb.isEmpty());
+        assertEquals(5, rb.capacity());
+        for (int i = 0; i < 5; i++) {
+            assertFalse(rb.isFull());
+            rb.addLast(i);
+            assertEquals(i + 1, rb.size());
+        }
+        assertTrue(rb.isFull());
+        try {
+            rb.addLast(5);
+            fail();
+        } catch (IllegalStateException e) {
+            // capacity is fixed
+        }
+        for (int i = 0; i < 5; i++) {
+            assertEquals(i, rb.get(i), 0.0);
+        }
+        for (int i = 0; i < 5; i++) {
+            assertEquals(i, rb.removeFirst(), 0.0);
+        }
+        assertTrue(rb.isEmpty());
+        try {
+            rb.removeFirst();
+            fail();
+        } catch (IllegalStateException e) {
+            // nothing to remove
+        }
+    }
+
+    @Test
+    /** Wraps around the backing array many times, for capacities at and off powers of two. */
+    public void wrapAroundTest() {
+        for (int capacity : new int[] {1, 2, 3, 4, 7, 8, 9, 100}) {
+            DoubleRingBuffer rb = new DoubleRingBuffer(capacity);
+            java.util.ArrayDeque<Double> expected = new java.util.ArrayDeque<>();
+            for (int i = 0; i < capacity; i++) {
+                rb.addLast(i);
+                expected.addLast((double) i);
+            }
+            for (int i = 0; i < 1000; i++) {
+                assertEquals(expected.removeFirst(), rb.replaceFirst(i * 0.5), 0.0);
+                expected.addLast(i * 0.5);
+                assertEquals(capacity, rb.size());
+                assertEquals(expected.peekFirst(), rb.get(0), 0.0);
+                assertEquals(expected.peekLast(), rb.get(capacity - 1), 0.0);
+            }
+            rb.set(0, -1);
+            assertEquals(-1, rb.get(0), 0.0);
+            rb.clear();
+            assertTrue(rb.isEmpty());
+        }
+    }
+
+    @Test
+    public void badIndexAndCapacityTest() {
+        DoubleRingBuffer rb = new DoubleRingBuffer(4);
+        rb.addLast(1);
+        try {
+            rb.get(1);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+            // only index 0 is in use
+        }
+        try {
+            new DoubleRingBuffer(0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // capacity must be positive
+        }
+    }
+}
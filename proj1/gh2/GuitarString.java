@@ -1,6 +1,6 @@
 package gh2;
 
-import deque.ArrayDeque;
+import deque.DoubleRingBuffer;
 
 //Note: This file will not compile until you complete the Deque implementations
 public class GuitarString {
@@ -10,31 +10,26 @@ public class GuitarString {
     private static final int SR = 44100;      // Sampling Rate
     private static final double DECAY = .996; // energy decay factor
 
-    /* Buffer for storing sound data. */
-    private ArrayDeque<Double> buffer;
+    /* Buffer for storing sound data. It holds primitive doubles and is
+     * always full, so tic(), sample() and pluck() never allocate. */
+    private DoubleRingBuffer buffer;
 
     /* Create a guitar string of the given frequency.  */
     public GuitarString(double frequency) {
-        // Initiate an ArrayDeque
         int capacity = (int) Math.round(SR / frequency);
-        buffer = new ArrayDeque<>();
+        buffer = new DoubleRingBuffer(capacity);
         // Fill buffer with zeros
         for (int i = 0; i < capacity; i++) {
-            buffer.addFirst(0.0);
+            buffer.addLast(0.0);
         }
     }
 
 
     /* Pluck the guitar string by replacing the buffer with white noise. */
     public void pluck() {
-        double r = 0.0;
-
-        int bufferCapacity = buffer.size();
         // replace elements of buffer with random numbers between -0.5 and 0.5
-        for (int i = 0; i < bufferCapacity; i++) {
-            r = Math.random() - 0.5;
-            buffer.removeLast();
-            buffer.addFirst(r);
+        for (int i = 0; i < buffer.size(); i++) {
+            buffer.set(i, Math.random() - 0.5);
         }
     }
 
@@ -42,9 +37,10 @@ public class GuitarString {
      * the Karplus-Strong algorithm.
      */
     public void tic() {
-        double newDouble = (buffer.get(0) + buffer.get(1)) * 0.5 * DECAY;
-        buffer.removeFirst();
-        buffer.addLast(newDouble);
+        double first = buffer.get(0);
+        // a string of one sample has no second item, and just decays
+        double second = buffer.size() > 1 ? buffer.get(1) : first;
+        buffer.replaceFirst((first + second) * 0.5 * DECAY);
     }
 
     /* Return the double at the front of the buffer. */
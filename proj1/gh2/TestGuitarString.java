@@ -4,6 +4,9 @@ package gh2;
  * edu.princeton.cs.introcs package. */
 import edu.princeton.cs.introcs.StdAudio;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
 import org.junit.Test;
 import static org.junit.Assert.*;
 
@@ -79,5 +82,32 @@ public class TestGuitarString  {
         // for assertEquals(double, double)
         assertEquals("Wrong tic value. Try running the testTic method.", expected, s5, 0.001);
     }
-}
 
+    @Test
+    public void testTicDoesNotAllocate() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            return;  // this JVM cannot count allocated bytes
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        GuitarString s = new GuitarString(GuitarHeroLite.CONCERT_A);
+        double sum = 0;
+        // warm up so that the timed loop runs compiled code
+        for (int i = 0; i < 200000; i += 1) {
+            s.pluck();
+            sum += s.sample();
+            s.tic();
+        }
+        long id = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(id);
+        for (int i = 0; i < 100000; i += 1) {
+            sum += s.sample();
+            s.tic();
+        }
+        s.pluck();
+        long allocated = threads.getThreadAllocatedBytes(id) - before;
+        // a boxed Double per tic() would be at least 1.6 MB
+        assertTrue("tic() allocated " + allocated + " bytes", allocated < 10000);
+        assertFalse(Double.isNaN(sum));
+    }
+}